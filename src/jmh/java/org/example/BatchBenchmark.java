@@ -0,0 +1,61 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of batch encoding and decoding, sequential and on the common fork-join pool.
+ * Score is normalized per address.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchBenchmark {
+
+	private static final int BATCH_SIZE = 65536;
+
+	@Param({"true", "false"})
+	public boolean parallel;
+
+	private byte[][] payloads;
+	private String[] addresses;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		payloads = BenchmarkInputs.randomPayloads(BATCH_SIZE, 32);
+		addresses = Encoder.encodeAll("bc", payloads);
+	}
+
+	private int threshold() {
+		return parallel ? Bech32mUtils.PARALLEL_THRESHOLD : Integer.MAX_VALUE;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public String[] encodeAll() {
+		return Encoder.encodeAll("bc", payloads, ForkJoinPool.commonPool(), threshold());
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public Bech32mData[] decodeAll() {
+		return Decoder.decodeAll(addresses, ForkJoinPool.commonPool(), threshold());
+	}
+}
@@ -0,0 +1,126 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates and loads inputs shared by the benchmarks.
+ * <p>
+ * Fixed corpora are read from test_vectors.txt and test_vectors_segwit.txt, which are expected
+ * in the directory given by system property {@code bech32m.vectors.dir} (project root by default).
+ * Random inputs are generated from a fixed seed, so every run measures the same data.
+ */
+final class BenchmarkInputs {
+
+	static final String VECTORS_DIR_PROPERTY = "bech32m.vectors.dir";
+
+	static final String TEST_VECTORS = "test_vectors.txt";
+
+	static final String SEGWIT_TEST_VECTORS = "test_vectors_segwit.txt";
+
+	private static final long SEED = 0x62656368L;
+
+	private static final String HRP_CHARS = "abcdefghijklmnopqrstuvwxyz";
+
+	/**
+	 * private override of default public constructor
+	 */
+	private BenchmarkInputs() {
+	}
+
+	/**
+	 * Loads addresses from both test vector files. Segwit vectors are stored as
+	 * "address: scriptPubKey", only the address part is returned.
+	 *
+	 * @return all test vector addresses in file order
+	 * @throws IOException if any of the files can not be read
+	 */
+	static String[] loadCorpus() throws IOException {
+		List<String> corpus = new ArrayList<>();
+		for (String fileName : new String[]{TEST_VECTORS, SEGWIT_TEST_VECTORS}) {
+			Path path = Paths.get(System.getProperty(VECTORS_DIR_PROPERTY, "."), fileName);
+			for (String line : Files.readAllLines(path, StandardCharsets.US_ASCII)) {
+				int separator = line.indexOf(':');
+				String address = (separator == -1 ? line : line.substring(0, separator)).trim();
+				if (!address.isEmpty()) {
+					corpus.add(address);
+				}
+			}
+		}
+		return corpus.toArray(new String[0]);
+	}
+
+	/**
+	 * Generates random lowercase HRPs.
+	 *
+	 * @param count number of HRPs
+	 * @param length length of every HRP
+	 * @return generated HRPs
+	 */
+	static String[] randomHrps(int count, int length) {
+		Random random = new Random(SEED);
+		String[] hrps = new String[count];
+		for (int i = 0; i < count; i++) {
+			StringBuilder hrp = new StringBuilder(length);
+			for (int j = 0; j < length; j++) {
+				hrp.append(HRP_CHARS.charAt(random.nextInt(HRP_CHARS.length())));
+			}
+			hrps[i] = hrp.toString();
+		}
+		return hrps;
+	}
+
+	/**
+	 * Generates random payloads of 5-bit values, as expected by the encoder.
+	 *
+	 * @param count number of payloads
+	 * @param length length of every payload
+	 * @return generated payloads
+	 */
+	static byte[][] randomPayloads(int count, int length) {
+		Random random = new Random(SEED + 1);
+		byte[][] payloads = new byte[count][length];
+		for (byte[] payload : payloads) {
+			for (int j = 0; j < length; j++) {
+				payload[j] = (byte) random.nextInt(32);
+			}
+		}
+		return payloads;
+	}
+
+	/**
+	 * Derives invalid addresses from valid ones. Every address gets one character of its data part
+	 * replaced by another charset character (checksum failure), every fourth one is made mixed-case
+	 * and every eighth one gets a character outside of the charset.
+	 *
+	 * @param valid valid bech32m addresses
+	 * @return invalid addresses, same count as valid ones
+	 */
+	static String[] corrupt(String[] valid) {
+		Random random = new Random(SEED + 2);
+		String[] invalid = new String[valid.length];
+		for (int i = 0; i < valid.length; i++) {
+			char[] chars = valid[i].toCharArray();
+			int separator = valid[i].lastIndexOf('1');
+			int position = separator + 1 + random.nextInt(chars.length - separator - 1);
+			if (i % 8 == 7) {
+				chars[position] = 'b';
+			} else if (i % 4 == 3) {
+				chars[position] = Character.toUpperCase(chars[position]) == chars[position]
+						? 'Q'
+						: Character.toUpperCase(chars[position]);
+			} else {
+				int symbol = Bech32mUtils.BECH32M_CHARSET.indexOf(chars[position]);
+				chars[position] = Bech32mUtils.BECH32M_CHARSET.charAt((symbol + 1 + random.nextInt(31)) % 32);
+			}
+			invalid[i] = new String(chars);
+		}
+		return invalid;
+	}
+}
@@ -0,0 +1,116 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of encoding, decoding and checksum computation on random inputs.
+ * <p>
+ * Inputs are parameterized by HRP length and payload length. Combinations are chosen so that
+ * the longest address (16 + 1 + 66 + 6 characters) still fits into the 90 character limit.
+ * Run together with the GC profiler (default of the benchmark profile) to see allocation rate per call.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CodecBenchmark {
+
+	private static final int INPUT_COUNT = 1024;
+
+	@Param({"1", "2", "4", "16"})
+	public int hrpLength;
+
+	@Param({"0", "8", "32", "66"})
+	public int payloadLength;
+
+	/**
+	 * Number of distinct HRPs among inputs; real traffic usually uses just a few of them.
+	 */
+	@Param({"4", "1024"})
+	public int hrpCount;
+
+	private String[] hrps;
+	private byte[][] payloads;
+	private String[] validAddresses;
+	private String[] invalidAddresses;
+	private byte[][] polymodValues;
+
+	private final byte[] payloadBuffer = new byte[Bech32mUtils.MAX_LENGTH];
+	private final DecodeResult decodeResult = new DecodeResult();
+
+	private int index;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		String[] distinctHrps = BenchmarkInputs.randomHrps(hrpCount, hrpLength);
+		hrps = new String[INPUT_COUNT];
+		for (int i = 0; i < INPUT_COUNT; i++) {
+			hrps[i] = distinctHrps[i % hrpCount];
+		}
+		payloads = BenchmarkInputs.randomPayloads(INPUT_COUNT, payloadLength);
+		validAddresses = new String[INPUT_COUNT];
+		polymodValues = new byte[INPUT_COUNT][];
+		for (int i = 0; i < INPUT_COUNT; i++) {
+			validAddresses[i] = Encoder.bech32mEncode(hrps[i], payloads[i]);
+
+			// same values as used for checksum creation: expanded HRP, data and zeroed checksum
+			byte[] expandedHRP = Bech32mUtils.hrpExpand(hrps[i]);
+			polymodValues[i] = new byte[expandedHRP.length + payloadLength + Bech32mUtils.CHECKSUM_LEN];
+			System.arraycopy(expandedHRP, 0, polymodValues[i], 0, expandedHRP.length);
+			System.arraycopy(payloads[i], 0, polymodValues[i], expandedHRP.length, payloadLength);
+		}
+		invalidAddresses = BenchmarkInputs.corrupt(validAddresses);
+	}
+
+	private int next() {
+		index = (index + 1) & (INPUT_COUNT - 1);
+		return index;
+	}
+
+	@Benchmark
+	public String encode() {
+		int i = next();
+		return Encoder.bech32mEncode(hrps[i], payloads[i]);
+	}
+
+	@Benchmark
+	public List<Object> decodeValid() {
+		return Decoder.bech32mDecode(validAddresses[next()]);
+	}
+
+	@Benchmark
+	public List<Object> decodeInvalid() {
+		return Decoder.bech32mDecode(invalidAddresses[next()]);
+	}
+
+	@Benchmark
+	public DecodeResult decodeIntoValid() {
+		return Decoder.decode(validAddresses[next()], payloadBuffer, 0, decodeResult);
+	}
+
+	@Benchmark
+	public DecodeResult decodeIntoInvalid() {
+		return Decoder.decode(invalidAddresses[next()], payloadBuffer, 0, decodeResult);
+	}
+
+	@Benchmark
+	public int polymod() {
+		return Bech32mUtils.bech32Polymod(polymodValues[next()]);
+	}
+}
@@ -0,0 +1,88 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of encoding and decoding the fixed test vector corpora
+ * (test_vectors.txt and test_vectors_segwit.txt).
+ * <p>
+ * Every invocation processes the whole corpus. Decoding score is normalized per address,
+ * encoding score is reported per pass over all decodable vectors.
+ * Segwit version 0 addresses carry Bech32 (not Bech32m) checksum, so they exercise the rejecting path.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CorpusBenchmark {
+
+	/**
+	 * Number of addresses in both test vector files, used to normalize the score per address.
+	 */
+	private static final int OPERATIONS = 15;
+
+	private String[] corpus;
+	private String[] hrps;
+	private byte[][] payloads;
+
+	@Setup(Level.Trial)
+	@SuppressWarnings("unchecked")
+	public void setUp() throws IOException {
+		corpus = BenchmarkInputs.loadCorpus();
+		if (corpus.length != OPERATIONS) {
+			throw new IllegalStateException("Corpus has changed, update OPERATIONS to " + corpus.length);
+		}
+
+		// encoding corpus consists of all decodable vectors
+		List<String> decodedHrps = new ArrayList<>();
+		List<byte[]> decodedPayloads = new ArrayList<>();
+		for (String address : corpus) {
+			List<Object> decoded = Decoder.bech32mDecode(address);
+			if (!decoded.isEmpty()) {
+				List<Byte> payload = (List<Byte>) decoded.get(1);
+				byte[] bytes = new byte[payload.size()];
+				for (int i = 0; i < bytes.length; i++) {
+					bytes[i] = payload.get(i);
+				}
+				decodedHrps.add((String) decoded.get(0));
+				decodedPayloads.add(bytes);
+			}
+		}
+		hrps = decodedHrps.toArray(new String[0]);
+		payloads = decodedPayloads.toArray(new byte[0][]);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(OPERATIONS)
+	public void decode(Blackhole blackhole) {
+		for (String address : corpus) {
+			blackhole.consume(Decoder.bech32mDecode(address));
+		}
+	}
+
+	@Benchmark
+	public void encode(Blackhole blackhole) {
+		for (int i = 0; i < hrps.length; i++) {
+			blackhole.consume(Encoder.bech32mEncode(hrps[i], payloads[i]));
+		}
+	}
+}
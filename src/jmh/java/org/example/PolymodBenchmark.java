@@ -0,0 +1,73 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checksum of long inputs computed sequentially and in parallel chunks, used to choose
+ * {@link ChunkedPolymod#POLYMOD_PARALLEL_THRESHOLD}. Parallel score on a pool larger than the number of cores
+ * shows the overhead of splitting and combining the chunks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PolymodBenchmark {
+
+	@Param({"1024", "4096", "16384", "65536", "262144"})
+	public int length;
+
+	@Param({"4"})
+	public int parallelism;
+
+	private byte[] values;
+	private ForkJoinPool pool;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random random = new Random(1);
+		values = new byte[length];
+		for (int i = 0; i < length; i++) {
+			values[i] = (byte) random.nextInt(32);
+		}
+		pool = new ForkJoinPool(parallelism);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		pool.shutdown();
+	}
+
+	@Benchmark
+	public int sequential() {
+		int checksum = 1;
+		int step = ChunkedPolymod.POLYMOD_PARALLEL_THRESHOLD - 1;
+		for (int offset = 0; offset < length; offset += step) {
+			// ranges below the threshold are always computed sequentially
+			checksum = Bech32mUtils.bech32Polymod(checksum, values, offset, Math.min(step, length - offset));
+		}
+		return checksum;
+	}
+
+	@Benchmark
+	public int chunked() {
+		return ChunkedPolymod.polymod(1, values, 0, length, pool);
+	}
+}
@@ -0,0 +1,109 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from start of the CLI process to its first output, for common invocations.
+ * <p>
+ * Application classes are taken from the current build by default. To measure AppCDS archive
+ * created by the {@code appcds} profile, pass the jar and the archive, e.g.
+ * {@code -Djmh.args="StartupBenchmark -p classpath=target/<jar-with-dependencies> -p archive=target/app.jsa"}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 20)
+@Fork(1)
+@State(Scope.Thread)
+public class StartupBenchmark {
+
+	@Param({"encode", "encodeHex", "decode", "decodeHex"})
+	public String invocation;
+
+	/**
+	 * Class path of the application, empty for classes of the current build
+	 */
+	@Param({""})
+	public String classpath;
+
+	/**
+	 * AppCDS archive, empty for none
+	 */
+	@Param({""})
+	public String archive;
+
+	private List<String> command;
+	private Process process;
+
+	@Setup(Level.Trial)
+	public void setUp() throws URISyntaxException {
+		String appClasspath = classpath.isEmpty()
+				? Paths.get(App.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString()
+				: classpath;
+
+		command = new ArrayList<>();
+		command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+		if (!archive.isEmpty()) {
+			command.add("-XX:SharedArchiveFile=" + archive);
+		}
+		command.add("-cp");
+		command.add(appClasspath);
+		command.add(App.class.getName());
+		command.addAll(arguments(invocation));
+	}
+
+	private static List<String> arguments(String invocation) {
+		switch (invocation) {
+			case "encode":
+				return Arrays.asList("-e", "--hrp", "bc", "AAECAwQ=");
+			case "encodeHex":
+				return Arrays.asList("-e", "--hrp", "bc", "--in-format", "hex", "0001020304");
+			case "decode":
+				return Arrays.asList("-d", "abcdef1l7aum6echk45nj3s0wdvt2fg8x9yrzpqzd3ryx");
+			case "decodeHex":
+				return Arrays.asList("-d", "--out-format", "hex", "abcdef1l7aum6echk45nj3s0wdvt2fg8x9yrzpqzd3ryx");
+			default:
+				throw new IllegalArgumentException("Unknown invocation: " + invocation);
+		}
+	}
+
+	@Benchmark
+	public int firstOutput() throws IOException {
+		process = new ProcessBuilder(command)
+				.redirectError(ProcessBuilder.Redirect.DISCARD)
+				.start();
+		InputStream output = process.getInputStream();
+		int first = output.read();
+		if (first < 0) {
+			throw new IllegalStateException("No output from " + command);
+		}
+		return first;
+	}
+
+	@TearDown(Level.Invocation)
+	public void tearDown() throws InterruptedException {
+		process.destroy();
+		process.waitFor();
+	}
+}
@@ -0,0 +1,547 @@
+package org.example;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Compact set of Bech32m (and Bech32) addresses for fast membership tests of large watch lists.
+ * <p>
+ * Addresses are stored decoded: every address is a record of bits packed into consecutive longs of
+ * large slabs - 7 bits of payload length, 1 bit of checksum variant, 16 bits of HRP identifier
+ * (index into the table of distinct HRPs) and 5 bits per payload symbol. Checksum is not stored,
+ * it is given by the rest of the address. Records are found through an open-addressing index, whose
+ * slots hold reference to the record and 24 bits of its hash, so most mismatches are rejected without
+ * reading the record. Optional Bloom filter rejects most absent addresses before the index is touched.
+ * <p>
+ * The set can be saved as a snapshot, which is memory-mapped by {@link #open(Path)} without loading
+ * it to the heap; such set is read-only. Lookups do not allocate. The set is not thread-safe for
+ * modification, concurrent lookups are safe when the set is not being modified.
+ */
+public class AddressSet {
+
+	/**
+	 * Default number of longs in one slab of records
+	 */
+	public static final int DEFAULT_SLAB_SIZE = 1 << 20;
+
+	/**
+	 * Maximal number of distinct human-readable parts
+	 */
+	public static final int MAX_HRPS = 1 << 16;
+
+	/**
+	 * Maximal number of longs of one record
+	 */
+	private static final int MAX_RECORD_LONGS = (24 + 5 * Bech32mUtils.MAX_LENGTH + 63) / 64;
+
+	/**
+	 * Record being looked up, packed per thread so lookups do not allocate
+	 */
+	private static final ThreadLocal<long[]> PACKED = ThreadLocal.withInitial(() -> new long[MAX_RECORD_LONGS]);
+
+	private static final int HEADER_BITS = 24;
+
+	private static final long MAGIC = 0x4233324d53455431L;
+
+	private static final long VERSION = 1;
+
+	private static final int HEADER_LONGS = 10;
+
+	private static final int BLOOM_HASHES = 3;
+
+	// index slot: reference to record + 1 in low bits, top bits of hash in high bits, 0 for empty slot
+	private static final int REF_BITS = 40;
+	private static final long REF_MASK = (1L << REF_BITS) - 1;
+
+	private final boolean readOnly;
+	private final int slabSize;
+	private final LongBuffer bloom;
+	private final long bloomMask;
+
+	private String[] hrps;
+	private int hrpCount;
+	// open-addressing index of HRPs by hash of their characters: identifier + 1, 0 for empty slot
+	private int[] hrpIndex;
+	private LongBuffer[] slabs;
+	private int slabCount;
+	private int slabUsed;
+	private LongBuffer index;
+	private int size;
+
+	/**
+	 * Creates empty set without Bloom filter.
+	 */
+	public AddressSet() {
+		this(1024, 0);
+	}
+
+	/**
+	 * Creates empty set.
+	 *
+	 * @param expectedSize expected number of addresses, the set grows beyond it if needed
+	 * @param bloomBitsPerAddress bits of Bloom filter per expected address (e.g. 10 for about 1% false positives),
+	 *                            0 for no Bloom filter
+	 */
+	public AddressSet(int expectedSize, int bloomBitsPerAddress) {
+		this(expectedSize, bloomBitsPerAddress, DEFAULT_SLAB_SIZE);
+	}
+
+	AddressSet(int expectedSize, int bloomBitsPerAddress, int slabSize) {
+		if (expectedSize < 0 || bloomBitsPerAddress < 0 || slabSize < MAX_RECORD_LONGS) {
+			throw new IllegalArgumentException("Invalid size of address set");
+		}
+		this.readOnly = false;
+		this.slabSize = slabSize;
+		this.hrps = new String[4];
+		this.hrpIndex = new int[8];
+		this.slabs = new LongBuffer[4];
+		this.index = LongBuffer.wrap(new long[tableSize(expectedSize)]);
+		if (bloomBitsPerAddress > 0) {
+			long bits = Long.highestOneBit(Math.max(64L, (long) expectedSize * bloomBitsPerAddress - 1) << 1);
+			this.bloom = LongBuffer.wrap(new long[(int) Math.min(Integer.MAX_VALUE - 8, bits / 64)]);
+		} else {
+			this.bloom = null;
+		}
+		this.bloomMask = bloom == null ? 0 : (long) bloom.capacity() * 64 - 1;
+	}
+
+	private AddressSet(int slabSize, String[] hrps, LongBuffer[] slabs, int slabUsed, LongBuffer index, int size,
+					   LongBuffer bloom) {
+		this.readOnly = true;
+		this.slabSize = slabSize;
+		this.hrps = hrps;
+		this.hrpCount = hrps.length;
+		this.hrpIndex = new int[Integer.highestOneBit(Math.max(4, hrps.length) * 2 - 1) << 1];
+		for (int id = 0; id < hrps.length; id++) {
+			indexHrp(id);
+		}
+		this.slabs = slabs;
+		this.slabCount = slabs.length;
+		this.slabUsed = slabUsed;
+		this.index = index;
+		this.size = size;
+		this.bloom = bloom;
+		this.bloomMask = bloom == null ? 0 : (long) bloom.capacity() * 64 - 1;
+	}
+
+	/**
+	 * @return number of index slots for given number of entries, kept at most 3/4 full
+	 */
+	private static int tableSize(long entries) {
+		long slots = Long.highestOneBit(Math.max(16, entries * 4 / 3) - 1) << 1;
+		if (slots > 1 << 30) {
+			throw new IllegalStateException("Address set is too large");
+		}
+		return (int) slots;
+	}
+
+	/**
+	 * Adds the address (Bech32m or Bech32) to the set.
+	 *
+	 * @param address address, in any case
+	 * @return true if the address was added, false if it was already present
+	 * @throws IllegalArgumentException if the address is not valid
+	 * @throws UnsupportedOperationException if the set is read-only
+	 */
+	public boolean add(CharSequence address) {
+		if (readOnly) {
+			throw new UnsupportedOperationException("Address set is read-only");
+		}
+		BatchCodec.Scratch scratch = BatchCodec.Scratch.get();
+		DecodeResult result = decode(address, scratch);
+		if (!result.isValid()) {
+			throw new IllegalArgumentException("Invalid address (" + result.getStatus() + "): " + address);
+		}
+		int hrpId = findHrp(address, result.getHrpOffset(), result.getHrpLength());
+		if (hrpId < 0) {
+			hrpId = addHrp(result.hrp(address));
+		}
+		long[] packed = PACKED.get();
+		int words = pack(hrpId, result, scratch.symbols(0), packed);
+		long hash = hash(packed, words);
+
+		int slot = find(packed, words, hash);
+		if (slot >= 0) {
+			return false;
+		}
+		long ref = append(packed, words);
+		index.put(-slot - 1, tag(hash) | (ref + 1));
+		if (bloom != null) {
+			for (int i = 0; i < BLOOM_HASHES; i++) {
+				long bit = bloomBit(hash, i);
+				int word = (int) (bit >>> 6);
+				bloom.put(word, bloom.get(word) | 1L << bit);
+			}
+		}
+		if (++size > index.capacity() / 4 * 3) {
+			rehash(index.capacity() * 2);
+		}
+		return true;
+	}
+
+	/**
+	 * Checks whether the address is in the set, without any allocation.
+	 *
+	 * @param address address, in any case
+	 * @return true if the address is in the set, false if it is not or if it is not valid
+	 */
+	public boolean contains(CharSequence address) {
+		BatchCodec.Scratch scratch = BatchCodec.Scratch.get();
+		DecodeResult result = decode(address, scratch);
+		if (!result.isValid()) {
+			return false;
+		}
+		int hrpId = findHrp(address, result.getHrpOffset(), result.getHrpLength());
+		if (hrpId < 0) {
+			return false;
+		}
+		long[] packed = PACKED.get();
+		int words = pack(hrpId, result, scratch.symbols(0), packed);
+		long hash = hash(packed, words);
+		if (bloom != null) {
+			for (int i = 0; i < BLOOM_HASHES; i++) {
+				long bit = bloomBit(hash, i);
+				if ((bloom.get((int) (bit >>> 6)) & 1L << bit) == 0) {
+					return false;
+				}
+			}
+		}
+		return find(packed, words, hash) >= 0;
+	}
+
+	/**
+	 * Adds all addresses of text file, one per line. Blank lines are skipped.
+	 *
+	 * @param file text file
+	 * @return number of added addresses (not present before)
+	 * @throws IOException if reading fails
+	 * @throws IllegalArgumentException if any line is not valid address, addresses before it are added
+	 */
+	public long addAll(Path file) throws IOException {
+		long added = 0;
+		long lineNumber = 0;
+		try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.US_ASCII)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				line = line.trim();
+				if (line.isEmpty()) {
+					continue;
+				}
+				try {
+					added += add(line) ? 1 : 0;
+				} catch (IllegalArgumentException e) {
+					throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage(), e);
+				}
+			}
+		}
+		return added;
+	}
+
+	/**
+	 * @return number of addresses in the set
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return true if the set was opened from snapshot and can not be modified
+	 */
+	public boolean isReadOnly() {
+		return readOnly;
+	}
+
+	private static DecodeResult decode(CharSequence address, BatchCodec.Scratch scratch) {
+		return Decoder.decode(address, 0, address.length(), scratch.symbols(address.length()), 0, scratch.result, true);
+	}
+
+	/**
+	 * Finds identifier of human-readable part, compared case-insensitively, through the HRP index.
+	 */
+	private int findHrp(CharSequence input, int start, int length) {
+		int mask = hrpIndex.length - 1;
+		for (int slot = hrpHash(input, start, length) & mask; hrpIndex[slot] != 0; slot = (slot + 1) & mask) {
+			String hrp = hrps[hrpIndex[slot] - 1];
+			if (hrp.length() != length) {
+				continue;
+			}
+			int i = 0;
+			while (i < length && hrp.charAt(i) == Bech32mUtils.toLowerCase(input.charAt(start + i))) {
+				i++;
+			}
+			if (i == length) {
+				return hrpIndex[slot] - 1;
+			}
+		}
+		return -1;
+	}
+
+	private static int hrpHash(CharSequence input, int start, int length) {
+		int hash = 0;
+		for (int i = start; i < start + length; i++) {
+			hash = 31 * hash + Bech32mUtils.toLowerCase(input.charAt(i));
+		}
+		return hash ^ (hash >>> 16);
+	}
+
+	private int addHrp(String hrp) {
+		if (hrpCount == MAX_HRPS) {
+			throw new IllegalStateException("Too many human-readable parts");
+		}
+		if (hrpCount == hrps.length) {
+			hrps = Arrays.copyOf(hrps, hrps.length * 2);
+		}
+		hrps[hrpCount] = hrp;
+		// index is kept at most half full
+		if ((hrpCount + 1) * 2 > hrpIndex.length) {
+			hrpIndex = new int[hrpIndex.length * 2];
+			for (int id = 0; id < hrpCount; id++) {
+				indexHrp(id);
+			}
+		}
+		indexHrp(hrpCount);
+		return hrpCount++;
+	}
+
+	private void indexHrp(int id) {
+		int mask = hrpIndex.length - 1;
+		int slot = hrpHash(hrps[id], 0, hrps[id].length()) & mask;
+		while (hrpIndex[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		hrpIndex[slot] = id + 1;
+	}
+
+	/**
+	 * Packs decoded address into record bits.
+	 *
+	 * @return number of longs of the record
+	 */
+	private static int pack(int hrpId, DecodeResult result, byte[] symbols, long[] packed) {
+		int length = result.getPayloadLength();
+		int words = (HEADER_BITS + 5 * length + 63) >>> 6;
+		Arrays.fill(packed, 0, words, 0L);
+		packed[0] = length | (result.getVariant() == Bech32Variant.BECH32 ? 1 << 7 : 0) | (long) hrpId << 8;
+		int bit = HEADER_BITS;
+		for (int i = 0; i < length; i++, bit += 5) {
+			long symbol = symbols[i];
+			packed[bit >>> 6] |= symbol << bit;
+			if ((bit & 63) > 59) {
+				packed[(bit >>> 6) + 1] |= symbol >>> (64 - (bit & 63));
+			}
+		}
+		return words;
+	}
+
+	private static int recordLength(long header) {
+		return (HEADER_BITS + 5 * (int) (header & 0x7F) + 63) >>> 6;
+	}
+
+	private static long hash(long[] packed, int words) {
+		long hash = 0x9E3779B97F4A7C15L;
+		for (int i = 0; i < words; i++) {
+			hash = (hash ^ packed[i]) * 0xBF58476D1CE4E5B9L;
+			hash ^= hash >>> 31;
+		}
+		hash *= 0x94D049BB133111EBL;
+		return hash ^ (hash >>> 29);
+	}
+
+	private static long tag(long hash) {
+		return hash & ~REF_MASK;
+	}
+
+	private long bloomBit(long hash, int i) {
+		return ((hash >>> 32) + i * (hash | 1)) & bloomMask;
+	}
+
+	/**
+	 * @return index slot of the record, or -(free slot) - 1 if the record is not present
+	 */
+	private int find(long[] packed, int words, long hash) {
+		int mask = index.capacity() - 1;
+		long tag = tag(hash);
+		int slot = (int) hash & mask;
+		while (true) {
+			long entry = index.get(slot);
+			if (entry == 0) {
+				return -slot - 1;
+			}
+			if ((entry & ~REF_MASK) == tag && matches((entry & REF_MASK) - 1, packed, words)) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	private boolean matches(long ref, long[] packed, int words) {
+		LongBuffer slab = slabs[(int) (ref / slabSize)];
+		int offset = (int) (ref % slabSize);
+		// the first word holds the length, so equal first words mean records of the same length
+		for (int i = 0; i < words; i++) {
+			if (slab.get(offset + i) != packed[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private long append(long[] packed, int words) {
+		if (slabCount == 0 || slabUsed + words > slabSize) {
+			if (slabCount == slabs.length) {
+				slabs = Arrays.copyOf(slabs, slabs.length * 2);
+			}
+			slabs[slabCount++] = LongBuffer.wrap(new long[slabSize]);
+			slabUsed = 0;
+		}
+		LongBuffer slab = slabs[slabCount - 1];
+		for (int i = 0; i < words; i++) {
+			slab.put(slabUsed + i, packed[i]);
+		}
+		long ref = (long) (slabCount - 1) * slabSize + slabUsed;
+		slabUsed += words;
+		return ref;
+	}
+
+	private void rehash(int capacity) {
+		LongBuffer rehashed = LongBuffer.wrap(new long[capacity]);
+		long[] record = new long[MAX_RECORD_LONGS];
+		for (int i = 0; i < index.capacity(); i++) {
+			long entry = index.get(i);
+			if (entry == 0) {
+				continue;
+			}
+			long ref = (entry & REF_MASK) - 1;
+			LongBuffer slab = slabs[(int) (ref / slabSize)];
+			int offset = (int) (ref % slabSize);
+			int words = recordLength(slab.get(offset));
+			for (int w = 0; w < words; w++) {
+				record[w] = slab.get(offset + w);
+			}
+			int slot = (int) hash(record, words) & (capacity - 1);
+			while (rehashed.get(slot) != 0) {
+				slot = (slot + 1) & (capacity - 1);
+			}
+			rehashed.put(slot, entry);
+		}
+		index = rehashed;
+	}
+
+	/**
+	 * Saves the set as snapshot, which can be opened by {@link #open(Path)}.
+	 *
+	 * @param file snapshot file, overwritten if it exists
+	 * @throws IOException if writing fails
+	 */
+	public void save(Path file) throws IOException {
+		byte[] hrpBytes = hrpBytes();
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+			out.writeLong(MAGIC);
+			out.writeLong(VERSION);
+			out.writeLong(size);
+			out.writeLong(hrpCount);
+			out.writeLong(hrpBytes.length);
+			out.writeLong(slabSize);
+			out.writeLong(slabCount);
+			out.writeLong(slabUsed);
+			out.writeLong(index.capacity());
+			out.writeLong(bloom == null ? 0 : bloom.capacity());
+			out.write(hrpBytes);
+			for (int s = 0; s < slabCount; s++) {
+				writeLongs(out, slabs[s], s == slabCount - 1 ? slabUsed : slabSize);
+			}
+			writeLongs(out, index, index.capacity());
+			if (bloom != null) {
+				writeLongs(out, bloom, bloom.capacity());
+			}
+		}
+	}
+
+	/**
+	 * @return human-readable parts, each as length byte and ASCII characters, padded to whole longs
+	 */
+	private byte[] hrpBytes() {
+		int length = 0;
+		for (int id = 0; id < hrpCount; id++) {
+			length += 1 + hrps[id].length();
+		}
+		ByteBuffer bytes = ByteBuffer.allocate((length + 7) & ~7);
+		for (int id = 0; id < hrpCount; id++) {
+			bytes.put((byte) hrps[id].length());
+			bytes.put(hrps[id].getBytes(StandardCharsets.US_ASCII));
+		}
+		return bytes.array();
+	}
+
+	private static void writeLongs(DataOutputStream out, LongBuffer longs, int count) throws IOException {
+		for (int i = 0; i < count; i++) {
+			out.writeLong(longs.get(i));
+		}
+	}
+
+	/**
+	 * Opens snapshot saved by {@link #save(Path)}. Records, index and Bloom filter are memory-mapped,
+	 * so only the table of human-readable parts is loaded to the heap.
+	 *
+	 * @param file snapshot file
+	 * @return read-only set
+	 * @throws IOException if reading fails or the file is not a snapshot
+	 */
+	public static AddressSet open(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long position = 0;
+			LongBuffer header = map(channel, position, HEADER_LONGS);
+			position += HEADER_LONGS * 8L;
+			if (header.get(0) != MAGIC || header.get(1) != VERSION) {
+				throw new IOException("Not an address set snapshot: " + file);
+			}
+			int size = (int) header.get(2);
+			int hrpCount = (int) header.get(3);
+			int hrpBytesLength = (int) header.get(4);
+			int slabSize = (int) header.get(5);
+			int slabCount = (int) header.get(6);
+			int slabUsed = (int) header.get(7);
+			int indexLength = (int) header.get(8);
+			int bloomLength = (int) header.get(9);
+
+			ByteBuffer hrpBytes = channel.map(FileChannel.MapMode.READ_ONLY, position, hrpBytesLength);
+			position += hrpBytesLength;
+			String[] hrps = new String[hrpCount];
+			for (int id = 0; id < hrpCount; id++) {
+				byte[] hrp = new byte[hrpBytes.get()];
+				hrpBytes.get(hrp);
+				hrps[id] = new String(hrp, StandardCharsets.US_ASCII);
+			}
+
+			LongBuffer[] slabs = new LongBuffer[slabCount];
+			for (int s = 0; s < slabCount; s++) {
+				int length = s == slabCount - 1 ? slabUsed : slabSize;
+				slabs[s] = map(channel, position, length);
+				position += length * 8L;
+			}
+			LongBuffer index = map(channel, position, indexLength);
+			position += indexLength * 8L;
+			LongBuffer bloom = bloomLength == 0 ? null : map(channel, position, bloomLength);
+			return new AddressSet(slabSize, hrps, slabs, slabUsed, index, size, bloom);
+		}
+	}
+
+	private static LongBuffer map(FileChannel channel, long position, int longs) throws IOException {
+		if (position + longs * 8L > channel.size()) {
+			throw new IOException("Truncated address set snapshot");
+		}
+		// mapping stays valid after the channel is closed
+		return channel.map(FileChannel.MapMode.READ_ONLY, position, longs * 8L).asLongBuffer();
+	}
+}
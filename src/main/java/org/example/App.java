@@ -1,12 +1,12 @@
 package org.example;
 
-import com.google.common.primitives.Bytes;
-
 import java.io.*;
-import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 import static org.example.Constant.FAILURE;
 import static org.example.Constant.SUCCESS;
@@ -26,18 +26,28 @@ public class App
     private final static String IN_FORMAT_FLAG = "--in-format";
     private final static String OUT_FORMAT_FLAG = "--out-format";
     private final static String HRP_FLAG = "--hrp";
-    private final static Set<String> FLAGS = Set.of(E_FLAG, D_FLAG, IN_FLAG, OUT_FLAG, IN_FORMAT_FLAG, OUT_FORMAT_FLAG, HRP_FLAG);
+    private final static String BATCH_FLAG = "--batch";
+    private final static String THREADS_FLAG = "--threads";
+    private final static String SERVE_FLAG = "--serve";
+    private final static String CACHE_FLAG = "--cache";
+    private final static Set<String> FLAGS = Set.of(E_FLAG, D_FLAG, IN_FLAG, OUT_FLAG, IN_FORMAT_FLAG, OUT_FORMAT_FLAG, HRP_FLAG,
+            BATCH_FLAG, THREADS_FLAG, SERVE_FLAG, CACHE_FLAG);
 
     // BINARY_FLAGS are flags expecting one value immediately after flag itself
-    private final static Set<String> BINARY_FLAGS = Set.of(IN_FLAG, OUT_FLAG, IN_FORMAT_FLAG, OUT_FORMAT_FLAG, HRP_FLAG);
+    private final static Set<String> BINARY_FLAGS = Set.of(IN_FLAG, OUT_FLAG, IN_FORMAT_FLAG, OUT_FORMAT_FLAG, HRP_FLAG,
+            THREADS_FLAG, SERVE_FLAG, CACHE_FLAG);
 
     private static Operation operation = Operation.ENCODE;
-    private static List<Byte> input = new ArrayList<>();
+    private static ByteBuffer input = null;
     private static String hrp = null;
     private static String inputFile = null;
     private static String outputFile = null;
     private static InOutFormat inputFormat = InOutFormat.BASE64;
     private static InOutFormat outputFormat = InOutFormat.BECH32M;
+    private static boolean batch = false;
+    private static int threads = Runtime.getRuntime().availableProcessors();
+    private static int servePort = -1;
+    private static int cacheSize = 0;
 
     public static void main( String[] args )
     {
@@ -45,31 +55,42 @@ public class App
             return;
         }
 
-        if (input.size() == 0 && inputFile == null) {
+        if (servePort >= 0) {
+            runServer();
+            return;
+        }
+
+        if (batch) {
+            runBatch();
+            return;
+        }
+
+        boolean inputMissing = input == null || !input.hasRemaining();
+        if (inputMissing && inputFile == null) {
             printHelp("Missing input or hrp!");
             return;
         }
 
-        if (input.size() == 0 && inputFile != null) {
-            loadInputFromFile();
+        if (inputMissing && loadInputFromFile() == FAILURE) {
+            return;
         }
 
         if (operation.equals(Operation.ENCODE)) {
-            String output = Encoder.bech32mEncode(hrp, Bytes.toArray(input));
+            String output = Encoder.bech32mEncode(hrp, input);
             if (output == null) {
                 System.out.println("Encoding failed!");
                 return;
             }
-            writeOutput(output, List.of());
+            writeOutput(output, new byte[0]);
         } else if (operation.equals(Operation.DECODE)) {
-            List<Object> hrpAndPayload = Decoder.bech32mDecode(bech32mBytesToString(input));
-            if (hrpAndPayload.isEmpty()) {
+            String message = StandardCharsets.US_ASCII.decode(input).toString();
+            byte[] payload = new byte[message.length()];
+            DecodeResult result = Decoder.decode(message, payload, 0, new DecodeResult());
+            if (!result.isValid()) {
                 System.out.println("Decoding failed!");
                 return;
             }
-            String outHRP = (String) hrpAndPayload.get(0);
-            List<Byte> outPayload = (List<Byte>) hrpAndPayload.get(1);
-            writeOutput(outHRP, outPayload);
+            writeOutput(result.hrp(message), Arrays.copyOf(payload, result.getPayloadLength()));
         }
     }
 
@@ -80,6 +101,7 @@ public class App
      * @param args arguments of program
      */
     private static int initSettings(String[] args) {
+        resetSettings();
         int i = 0;
         String presubmittedInput = null;
 
@@ -122,55 +144,187 @@ public class App
                 case HRP_FLAG:
                     hrp = args[++i];
                     break;
+                case BATCH_FLAG:
+                    batch = true;
+                    break;
+                case THREADS_FLAG:
+                    try {
+                        threads = Integer.parseInt(args[++i]);
+                    } catch (NumberFormatException e) {
+                        threads = 0;
+                    }
+                    if (threads < 1) {
+                        printHelp("Invalid number of threads: " + args[i]);
+                        return FAILURE;
+                    }
+                    break;
+                case SERVE_FLAG:
+                    try {
+                        servePort = Integer.parseInt(args[++i]);
+                    } catch (NumberFormatException e) {
+                        servePort = -1;
+                    }
+                    if (servePort < 0 || servePort > 65535) {
+                        printHelp("Invalid port: " + args[i]);
+                        return FAILURE;
+                    }
+                    break;
+                case CACHE_FLAG:
+                    try {
+                        cacheSize = Integer.parseInt(args[++i]);
+                    } catch (NumberFormatException e) {
+                        cacheSize = 0;
+                    }
+                    if (cacheSize < 1) {
+                        printHelp("Invalid cache size: " + args[i]);
+                        return FAILURE;
+                    }
+                    break;
                 default:
                     presubmittedInput = args[i];
                     break;
             }
             i++;
         }
-        if (hrp == null && operation.equals(Operation.ENCODE)) {
+        if (hrp == null && operation.equals(Operation.ENCODE) && servePort < 0) {
             printHelp("HRP not provided!");
             return FAILURE;
         }
-        input = textToBinaryInput(presubmittedInput);
+        if (batch && presubmittedInput != null) {
+            printHelp("Input must be provided by -i or stdin in batch mode!");
+            return FAILURE;
+        }
+        if (servePort >= 0 && (presubmittedInput != null || inputFile != null || outputFile != null || batch)) {
+            printHelp("Input, output and batch mode can not be used in server mode!");
+            return FAILURE;
+        }
+        if (servePort >= 0 && (hrp != null || operation.equals(Operation.DECODE))) {
+            printHelp("Operation and HRP are given by every request in server mode!");
+            return FAILURE;
+        }
+        if ((batch || servePort >= 0) && (inputFormat.equals(InOutFormat.BINARY) || outputFormat.equals(InOutFormat.BINARY))) {
+            printHelp("Binary format is not supported in batch and server mode!");
+            return FAILURE;
+        }
+        if (presubmittedInput != null) {
+            input = ByteBuffer.wrap(textToBytes(presubmittedInput, inputFormat));
+        }
         return SUCCESS;
     }
 
     /**
-     * Method transforms text representation of data to list of bytes, based on
-     * encoding in static class attribute format.
+     * Sets all settings to their default values, so previous run does not affect the next one.
+     */
+    private static void resetSettings() {
+        operation = Operation.ENCODE;
+        input = null;
+        hrp = null;
+        inputFile = null;
+        outputFile = null;
+        inputFormat = InOutFormat.BASE64;
+        outputFormat = InOutFormat.BECH32M;
+        batch = false;
+        threads = Runtime.getRuntime().availableProcessors();
+        servePort = -1;
+        cacheSize = 0;
+    }
+
+    /**
+     * @return cache of decoded messages shared by all batch processors, null if caching is disabled
+     */
+    private static DecodeCache createCache() {
+        return cacheSize > 0 && (operation.equals(Operation.DECODE) || servePort >= 0) ? new DecodeCache(cacheSize) : null;
+    }
+
+    /**
+     * Runs {@link CodecServer} on given localhost port until the process is terminated.
+     * Every line received is encode or decode request, processed as in batch mode.
+     */
+    private static void runServer() {
+        DecodeCache cache = createCache();
+        // decoded payload is written in base64 by default, as with -d
+        InOutFormat decodedFormat = outputFormat.equals(InOutFormat.BECH32M) ? InOutFormat.BASE64 : outputFormat;
+        try (CodecServer server = new CodecServer(servePort,
+                () -> new BatchProcessor(inputFormat, decodedFormat, cache))) {
+            System.out.println("Listening on port " + server.getPort());
+            server.serve();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Processes every line of input file (or stdin) as separate job and writes
+     * one line of output for each of them. With more threads, lines are processed
+     * by {@link BatchPipeline}, output stays in input order.
+     */
+    private static void runBatch() {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                inputFile != null ? new FileInputStream(inputFile) : System.in, StandardCharsets.US_ASCII))) {
+            if (outputFile != null) {
+                try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                        new FileOutputStream(outputFile), StandardCharsets.US_ASCII))) {
+                    runBatch(reader, writer);
+                }
+            } else {
+                // standard output is only flushed, not closed
+                runBatch(reader, new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.US_ASCII)));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void runBatch(BufferedReader reader, Writer writer) throws IOException {
+        DecodeCache cache = createCache();
+        if (threads > 1) {
+            new BatchPipeline(() -> new BatchProcessor(operation, hrp, inputFormat, outputFormat, cache), threads)
+                    .run(reader, writer);
+        } else {
+            new BatchProcessor(operation, hrp, inputFormat, outputFormat, cache).run(reader, writer);
+        }
+    }
+
+    /**
+     * Method transforms text representation of data to bytes, based on given encoding.
      *
      * @param data text representation of data
-     * @return data transformed to list of bytes
+     * @param format encoding of data
+     * @return data transformed to bytes
      */
-    private static List<Byte> textToBinaryInput(String data) {
+    static byte[] textToBytes(String data, InOutFormat format) {
         byte[] decoded;
-        if (inputFormat.equals(InOutFormat.HEX)) {
-            decoded = new BigInteger(data, 16).toByteArray();
-        } else if (inputFormat.equals(InOutFormat.BASE64)) {
-            decoded = Base64.getDecoder().decode(data.getBytes());
+        if (format.equals(InOutFormat.HEX)) {
+            decoded = HexCodec.decode(data);
+        } else if (format.equals(InOutFormat.BASE64)) {
+            decoded = Base64.getDecoder().decode(data);
         } else {
             // All other possibilities of InOutFormat should not be transformed, because:
             // - BECH32M input is valid only for decode and decode function expects this format
             // - BINARY input is valid only for encode and encode function expects this format
             decoded = data.getBytes();
         }
-        return IntStream.range(0, decoded.length)
-                .mapToObj(i -> decoded[i])
-                .collect(Collectors.toList());
+        return decoded;
     }
 
     /**
-     * Handles the load of input data.
+     * Handles the load of input data. The input file is memory-mapped, so binary input
+     * is passed to encoder without any copying.
      *
      * @return SUCCESS or FAILURE, based on if load of data succeeded
      */
     private static int loadInputFromFile() {
-        try(InputStreamReader isr = new InputStreamReader(new FileInputStream(inputFile))) {
+        try (FileChannel channel = FileChannel.open(Paths.get(inputFile), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                System.out.println("Input file is too large!");
+                return FAILURE;
+            }
+            // mapping stays valid after the channel is closed
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
             if (inputFormat.equals(InOutFormat.BINARY)) {
-                loadBinaryInputFromFile(isr);
+                input = mapped;
             } else {
-                loadTextInputFromFile(isr);
+                input = loadTextInput(mapped);
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -180,41 +334,29 @@ public class App
     }
 
     /**
-     * Simply reads all bytes from isr and stores them to input attribute.
-     * Method expects binary data to be provided.
+     * Method transforms text input of given format to bytes. Trailing whitespace
+     * (e.g. line terminator at the end of file) is ignored.
      *
-     * @param isr InputStreamReader of file provided as program argument
-     * @throws IOException if read operation fails
+     * @param text mapped content of input file
+     * @return transformed input
      */
-    private static void loadBinaryInputFromFile(InputStreamReader isr) throws IOException {
-        int byteRead;
-        while ((byteRead = isr.read()) != -1) {
-            input.add((byte) byteRead);
+    private static ByteBuffer loadTextInput(ByteBuffer text) throws IOException {
+        int end = text.limit();
+        while (end > text.position() && Character.isWhitespace(text.get(end - 1))) {
+            end--;
         }
-    }
+        text.limit(end);
 
-    /**
-     * Method reads input from isr as a String. Then the result of textToBinary(...)
-     * is saved to input attribute.
-     *
-     * @param isr InputStreamReader of file provided as program argument
-     * @throws IOException if read operation fails
-     */
-    private static void loadTextInputFromFile(InputStreamReader isr) throws IOException {
-        StringBuilder inputRead = new StringBuilder();
-        int byteRead;
-        while ((byteRead = isr.read()) != -1) {
-            inputRead.append((char) byteRead);
+        if (inputFormat.equals(InOutFormat.BASE64)) {
+            return Base64Codec.decode(text);
+        } else if (inputFormat.equals(InOutFormat.HEX)) {
+            return HexCodec.decode(text);
         }
-        input = textToBinaryInput(inputRead.toString());
+        // BECH32M input is passed to decoder as it is
+        return text;
     }
 
-
-    private static String bech32mBytesToString(List<Byte> data) {
-        return new String(Bytes.toArray(data));
-    }
-
-    private static void writeOutput(String outputHrp, List<Byte> payload) {
+    private static void writeOutput(String outputHrp, byte[] payload) {
         if (outputFormat.equals(InOutFormat.BINARY)) {
             writeBinaryOutput(outputHrp, payload);
         } else {
@@ -222,10 +364,10 @@ public class App
         }
     }
 
-    private static void writeBinaryOutput(String outputHrp, List<Byte> payload) {
+    private static void writeBinaryOutput(String outputHrp, byte[] payload) {
         try(PrintStream printStream = outputFile != null ? new PrintStream(outputFile) : System.out) {
             printStream.print(outputHrp);
-            for (Byte b : payload) {
+            for (byte b : payload) {
                 printStream.print(b);
             }
         } catch (IOException e) {
@@ -233,34 +375,46 @@ public class App
         }
     }
 
-    private static void writeTextOutput(String outputHrp, List<Byte> payload) {
-        byte[] outputBytes = Bytes.toArray(payload);
-
-        String stringPayload = "";
-        if (outputFormat.equals(InOutFormat.BASE64)) {
-            outputBytes = Base64.getEncoder().encode(outputBytes);
-            stringPayload = outputBytes.length == 0
-                    ? ""
-                    : new BigInteger(outputBytes).toString();
-        } else if (outputFormat.equals(InOutFormat.HEX)) {
-            stringPayload = outputBytes.length == 0
-                    ? ""
-                    : new BigInteger(outputBytes).toString(16);
-        }
-
+    private static void writeTextOutput(String outputHrp, byte[] payload) {
         try(PrintStream printStream = outputFile != null ? new PrintStream(outputFile) : System.out) {
             printStream.println(outputHrp);
-            if (!stringPayload.isEmpty()) {
-                printStream.println(stringPayload);
+            if (payload.length > 0) {
+                if (outputFormat.equals(InOutFormat.HEX)) {
+                    HexCodec.encode(ByteBuffer.wrap(payload), printStream);
+                } else if (outputFormat.equals(InOutFormat.BASE64)) {
+                    Base64Codec.encode(ByteBuffer.wrap(payload), printStream);
+                } else {
+                    printStream.print(bytesToText(payload, outputFormat));
+                }
+                printStream.println();
             }
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * Method transforms payload to its text representation, based on given encoding.
+     *
+     * @param payload payload
+     * @param format encoding of text representation (BASE64 or HEX)
+     * @return text representation of payload, empty String for empty payload
+     */
+    static String bytesToText(byte[] payload, InOutFormat format) {
+        String stringPayload = "";
+        if (format.equals(InOutFormat.BASE64)) {
+            stringPayload = Base64.getEncoder().encodeToString(payload);
+        } else if (format.equals(InOutFormat.HEX)) {
+            stringPayload = HexCodec.encode(payload);
+        }
+        return stringPayload;
+    }
+
     private static void printHelp() {
         System.out.println("Bech32m encoding tool usage:");
-        System.out.println("<[-e [--in-format <format>]] | -d [--out-format <format>]> <-i <file> | <input>> <-hrp <value>> [-o <file>]");
+        System.out.println("<[-e [--in-format <format>]] | -d [--out-format <format>]> <-i <file> | <input>> <--hrp <value>> [-o <file>]");
+        System.out.println("<[-e [--in-format <format>]] | -d [--out-format <format>]> --batch [--threads <value>] [--cache <value>] [-i <file>] <--hrp <value>> [-o <file>]");
+        System.out.println("--serve <port> [--in-format <format>] [--out-format <format>] [--cache <value>]");
         System.out.println("Options:");
         System.out.println("  -e                   | encoding mode (by default)");
         System.out.println("  -d                   | decoding mode");
@@ -269,6 +423,10 @@ public class App
         System.out.println("  --in-format <value>  | format of input; possible values: base64 (by default), hex, binary");
         System.out.println("  --out-format <value> | format of output; possible values: base64 (by default), hex, binary");
         System.out.println("  --hrp <value>        | definition of human readable part");
+        System.out.println("  --batch              | batch mode; every line of input is encoded/decoded separately");
+        System.out.println("  --threads <value>    | number of threads used in batch mode (number of processors by default)");
+        System.out.println("  --serve <port>       | server mode; every line received on localhost port is request \"e <hrp> <payload>\" or \"d <message>\"");
+        System.out.println("  --cache <value>      | number of decoded messages cached in batch and server mode (no cache by default)");
     }
 
     private static void printHelp(String message) {
@@ -276,12 +434,12 @@ public class App
         printHelp();
     }
 
-    private enum Operation {
+    enum Operation {
         ENCODE,
         DECODE
     }
 
-    private enum InOutFormat {
+    enum InOutFormat {
         BECH32M,
         BASE64,
         HEX,
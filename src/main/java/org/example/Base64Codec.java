@@ -0,0 +1,120 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Streaming Base64 encoding and decoding used for input and output of the CLI.
+ * <p>
+ * Data is passed through {@link Base64.Decoder#wrap(InputStream)} and {@link Base64.Encoder#wrap(OutputStream)}
+ * in chunks of {@link HexCodec#CHUNK_SIZE} bytes, so conversion of large input takes linear time and constant
+ * memory besides the result.
+ */
+final class Base64Codec {
+
+    /**
+     * private override of default public constructor
+     */
+    private Base64Codec() {
+    }
+
+    /**
+     * Decodes ASCII Base64 text between position and limit of the buffer, position is advanced to the limit.
+     *
+     * @param text Base64 characters, padding is optional
+     * @return decoded bytes, buffer positioned at 0
+     * @throws IOException if text is not valid Base64
+     */
+    static ByteBuffer decode(ByteBuffer text) throws IOException {
+        // every 4 characters hold at most 3 bytes
+        byte[] decoded = new byte[(text.remaining() + 3) / 4 * 3];
+        int length = 0;
+        try (InputStream in = Base64.getDecoder().wrap(new BufferInputStream(text))) {
+            int read;
+            while ((read = in.read(decoded, length, Math.min(HexCodec.CHUNK_SIZE, decoded.length - length))) > 0) {
+                length += read;
+            }
+        }
+        return ByteBuffer.wrap(decoded, 0, length);
+    }
+
+    /**
+     * Encodes data between position and limit of the buffer to Base64 text and writes it to the destination
+     * in chunks. Position of the buffer is advanced to the limit, destination is not closed.
+     *
+     * @param data data
+     * @param dst destination, should be buffered
+     * @throws IOException if writing fails
+     */
+    static void encode(ByteBuffer data, OutputStream dst) throws IOException {
+        byte[] chunk = new byte[Math.min(HexCodec.CHUNK_SIZE, data.remaining())];
+        // closing the encoding stream writes the final padding
+        try (OutputStream out = Base64.getEncoder().wrap(new NonClosingOutputStream(dst))) {
+            while (data.hasRemaining()) {
+                int length = Math.min(chunk.length, data.remaining());
+                data.get(chunk, 0, length);
+                out.write(chunk, 0, length);
+            }
+        }
+    }
+
+    /**
+     * Reads bytes between position and limit of the buffer.
+     */
+    private static final class BufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        private BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int length = Math.min(len, buffer.remaining());
+            buffer.get(b, off, length);
+            return length;
+        }
+    }
+
+    /**
+     * Passes writes to the destination and only flushes it on close.
+     */
+    private static final class NonClosingOutputStream extends OutputStream {
+
+        private final OutputStream dst;
+
+        private NonClosingOutputStream(OutputStream dst) {
+            this.dst = dst;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            dst.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            dst.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            dst.flush();
+        }
+    }
+}
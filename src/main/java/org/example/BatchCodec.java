@@ -0,0 +1,123 @@
+package org.example;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs batch encoding/decoding, in parallel on a {@link ForkJoinPool} for large batches.
+ * <p>
+ * Every worker thread uses its own {@link Scratch} buffers, so processing of single item
+ * allocates only its result.
+ */
+final class BatchCodec {
+
+	/**
+	 * Smallest number of items in one parallel task
+	 */
+	private static final int MIN_TASK_SIZE = 256;
+
+	/**
+	 * private override of default public constructor
+	 */
+	private BatchCodec() {
+	}
+
+	/**
+	 * Processes items with indexes from 0 to count - 1, results are expected to be stored by index,
+	 * so they stay in input order regardless of processing order.
+	 *
+	 * @param count number of items
+	 * @param parallelThreshold minimal number of items to be processed in parallel
+	 * @param pool pool used for parallel processing
+	 * @param task processing of range of items
+	 */
+	static void run(int count, int parallelThreshold, ForkJoinPool pool, RangeTask task) {
+		if (count < parallelThreshold || pool.getParallelism() < 2) {
+			task.process(0, count, Scratch.get());
+			return;
+		}
+		int taskSize = Math.max(MIN_TASK_SIZE, count / (pool.getParallelism() * 4));
+		pool.invoke(new RangeAction(task, 0, count, taskSize));
+	}
+
+	/**
+	 * Processing of a range of batch items.
+	 */
+	interface RangeTask {
+
+		/**
+		 * @param from index of first item
+		 * @param to index after the last item
+		 * @param scratch buffers of current worker thread
+		 */
+		void process(int from, int to, Scratch scratch);
+	}
+
+	/**
+	 * Per-thread buffers reused for all items processed by one thread.
+	 * <p>
+	 * Single encode/decode calls use the buffers without initializing {@link BatchCodec}, which would
+	 * load fork/join classes, and the thread-local is an anonymous subclass rather than
+	 * {@link ThreadLocal#withInitial}, which would bootstrap a lambda on the CLI startup path.
+	 */
+	static final class Scratch {
+
+		private static final ThreadLocal<Scratch> SCRATCH = new ThreadLocal<Scratch>() {
+			@Override
+			protected Scratch initialValue() {
+				return new Scratch();
+			}
+		};
+
+		final Bech32mChecksum checksum = new Bech32mChecksum();
+
+		final DecodeResult result = new DecodeResult();
+
+		private byte[] symbols = new byte[Bech32mUtils.MAX_LENGTH];
+
+		/**
+		 * @return buffers of current thread
+		 */
+		static Scratch get() {
+			return SCRATCH.get();
+		}
+
+		/**
+		 * @param length required length
+		 * @return symbol buffer with at least required length
+		 */
+		byte[] symbols(int length) {
+			if (symbols.length < length) {
+				symbols = new byte[length];
+			}
+			return symbols;
+		}
+	}
+
+	private static final class RangeAction extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final RangeTask task;
+		private final int from;
+		private final int to;
+		private final int taskSize;
+
+		private RangeAction(RangeTask task, int from, int to, int taskSize) {
+			this.task = task;
+			this.from = from;
+			this.to = to;
+			this.taskSize = taskSize;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= taskSize) {
+				task.process(from, to, Scratch.get());
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new RangeAction(task, from, middle, taskSize), new RangeAction(task, middle, to, taskSize));
+		}
+	}
+}
@@ -0,0 +1,223 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Multi-threaded variant of {@link BatchProcessor#run(BufferedReader, Writer)}.
+ * <p>
+ * Reader thread splits input into chunks of lines, pool of worker threads processes the chunks
+ * and the calling thread writes results in input order. Chunks are passed between stages through
+ * bounded queues and the number of chunks in flight is limited, so memory usage does not depend
+ * on the size of input.
+ * <p>
+ * Failure of processing of any chunk is passed to the writing thread, which stops the other stages
+ * and rethrows it.
+ */
+class BatchPipeline {
+
+    /**
+     * Number of lines passed between stages at once
+     */
+    static final int CHUNK_SIZE = 1024;
+
+    /**
+     * Maximal number of chunks in flight (read, but not written yet) per worker
+     */
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    private static final Chunk END = new Chunk(-1, 0, 0);
+
+    private final Supplier<BatchProcessor> processors;
+    private final int threads;
+    private final int chunkSize;
+
+    /**
+     * @param processors creates processor for each worker thread
+     * @param threads number of worker threads
+     */
+    BatchPipeline(Supplier<BatchProcessor> processors, int threads) {
+        this(processors, threads, CHUNK_SIZE);
+    }
+
+    BatchPipeline(Supplier<BatchProcessor> processors, int threads, int chunkSize) {
+        this.processors = processors;
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Processes all lines of reader and writes results to writer, in input order.
+     *
+     * @param reader input
+     * @param writer output
+     * @throws IOException if read or write operation fails
+     */
+    void run(BufferedReader reader, Writer writer) throws IOException {
+        Semaphore inFlight = new Semaphore(threads * CHUNKS_PER_WORKER);
+        BlockingQueue<Chunk> read = new ArrayBlockingQueue<>(threads * CHUNKS_PER_WORKER);
+        BlockingQueue<Chunk> processed = new ArrayBlockingQueue<>(threads * CHUNKS_PER_WORKER + threads);
+        IOException[] readFailure = new IOException[1];
+
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            BatchProcessor processor = processors.get();
+            workers[i] = new Thread(() -> work(processor, read, processed), "bech32m-batch-worker-" + i);
+        }
+        Thread readerThread = new Thread(() -> {
+            try {
+                readChunks(reader, inFlight, read);
+            } catch (IOException e) {
+                readFailure[0] = e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                for (int i = 0; i < threads; i++) {
+                    signalEnd(read);
+                }
+            }
+        }, "bech32m-batch-reader");
+
+        for (Thread worker : workers) {
+            worker.setDaemon(true);
+            worker.start();
+        }
+        readerThread.setDaemon(true);
+        readerThread.start();
+
+        try {
+            writeChunks(writer, inFlight, processed);
+            readerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Batch processing interrupted", e);
+        } catch (IOException | RuntimeException e) {
+            readerThread.interrupt();
+            for (Thread worker : workers) {
+                worker.interrupt();
+            }
+            throw e;
+        }
+        if (readFailure[0] != null) {
+            throw readFailure[0];
+        }
+    }
+
+    private void readChunks(BufferedReader reader, Semaphore inFlight, BlockingQueue<Chunk> read)
+            throws IOException, InterruptedException {
+        long sequence = 0;
+        long lineNumber = 1;
+        Chunk chunk = null;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (chunk == null) {
+                inFlight.acquire();
+                chunk = new Chunk(sequence++, lineNumber, chunkSize);
+            }
+            chunk.lines[chunk.count++] = line;
+            lineNumber++;
+            if (chunk.count == chunkSize) {
+                read.put(chunk);
+                chunk = null;
+            }
+        }
+        if (chunk != null) {
+            read.put(chunk);
+        }
+    }
+
+    private static void work(BatchProcessor processor, BlockingQueue<Chunk> read, BlockingQueue<Chunk> processed) {
+        try {
+            Chunk chunk;
+            while ((chunk = read.take()) != END) {
+                // results replace the lines, chunk does not need any other array
+                try {
+                    for (int i = 0; i < chunk.count; i++) {
+                        chunk.lines[i] = processor.process(chunk.lines[i], chunk.firstLineNumber + i);
+                    }
+                } catch (RuntimeException | Error e) {
+                    // chunk is passed on anyway, so the writer does not wait for it forever
+                    chunk.failure = e;
+                }
+                processed.put(chunk);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            signalEnd(processed);
+        }
+    }
+
+    private void writeChunks(Writer writer, Semaphore inFlight, BlockingQueue<Chunk> processed)
+            throws IOException, InterruptedException {
+        Map<Long, Chunk> pending = new HashMap<>();
+        long next = 0;
+        int finishedWorkers = 0;
+        while (finishedWorkers < threads) {
+            Chunk chunk = processed.take();
+            if (chunk == END) {
+                finishedWorkers++;
+                continue;
+            }
+            if (chunk.failure != null) {
+                throw new IOException("Batch processing failed in chunk starting at line " + chunk.firstLineNumber,
+                        chunk.failure);
+            }
+            pending.put(chunk.sequence, chunk);
+            while ((chunk = pending.remove(next)) != null) {
+                for (int i = 0; i < chunk.count; i++) {
+                    writer.write(chunk.lines[i]);
+                    writer.write(System.lineSeparator());
+                }
+                next++;
+                inFlight.release();
+            }
+        }
+        writer.flush();
+        if (!pending.isEmpty()) {
+            throw new IOException("Batch processing did not finish, chunk " + next + " is missing");
+        }
+    }
+
+    /**
+     * Passes end marker to the next stage. If the pipeline is being shut down (thread is interrupted),
+     * the next stage may not consume anymore, so the marker is passed only if there is space for it.
+     */
+    private static void signalEnd(BlockingQueue<Chunk> queue) {
+        if (Thread.currentThread().isInterrupted()) {
+            queue.offer(END);
+            return;
+        }
+        try {
+            queue.put(END);
+        } catch (InterruptedException e) {
+            queue.offer(END);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Consecutive lines of input, replaced by results once processed.
+     */
+    private static final class Chunk {
+
+        private final long sequence;
+        private final long firstLineNumber;
+        private final String[] lines;
+        private int count;
+        private Throwable failure;
+
+        private Chunk(long sequence, long firstLineNumber, int size) {
+            this.sequence = sequence;
+            this.firstLineNumber = firstLineNumber;
+            this.lines = new String[size];
+        }
+    }
+}
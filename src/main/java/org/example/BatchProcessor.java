@@ -0,0 +1,139 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Processes newline-delimited input of Bech32m encoding tool, every line being separate
+ * encode or decode job.
+ * <p>
+ * For encoding, line holds payload in input format and result is the encoded message.
+ * For decoding, line holds the message and result is human-readable part followed by space
+ * and payload in output format (payload is omitted if empty). Failed job results in line
+ * "Line N: &lt;reason&gt;", so output always has one line per input line.
+ * <p>
+ * Decoded messages may be cached by {@link DecodeCache}, which can be shared by more processors.
+ * <p>
+ * Instance reuses its decoding buffers, it is not thread-safe.
+ */
+class BatchProcessor {
+
+    private final App.Operation operation;
+    private final String hrp;
+    private final App.InOutFormat inputFormat;
+    private final App.InOutFormat outputFormat;
+    private final DecodeCache cache;
+
+    private byte[] symbols = new byte[Bech32mUtils.MAX_LENGTH];
+    private final DecodeResult result = new DecodeResult();
+
+    BatchProcessor(App.Operation operation, String hrp, App.InOutFormat inputFormat, App.InOutFormat outputFormat) {
+        this(operation, hrp, inputFormat, outputFormat, null);
+    }
+
+    /**
+     * Creates processor of jobs whose operation and HRP are given by every job, which are processed
+     * by {@link #encode(String, String, long)} and {@link #decode(String, long)}.
+     *
+     * @param cache cache of decoded messages, null if messages should not be cached
+     */
+    BatchProcessor(App.InOutFormat inputFormat, App.InOutFormat outputFormat, DecodeCache cache) {
+        this(null, null, inputFormat, outputFormat, cache);
+    }
+
+    /**
+     * @param cache cache of decoded messages, null if messages should not be cached
+     */
+    BatchProcessor(App.Operation operation, String hrp, App.InOutFormat inputFormat, App.InOutFormat outputFormat,
+                   DecodeCache cache) {
+        this.operation = operation;
+        this.hrp = hrp;
+        this.inputFormat = inputFormat;
+        this.outputFormat = outputFormat;
+        this.cache = cache;
+    }
+
+    /**
+     * Processes all lines of reader and writes results to writer.
+     *
+     * @param reader input
+     * @param writer output
+     * @throws IOException if read or write operation fails
+     */
+    void run(BufferedReader reader, Writer writer) throws IOException {
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            writer.write(process(line, ++lineNumber));
+            writer.write(System.lineSeparator());
+        }
+        writer.flush();
+    }
+
+    /**
+     * Processes one line of input.
+     *
+     * @param line line of input, without line terminator
+     * @param lineNumber number of line (starting from 1), used in failure messages
+     * @return line of output, without line terminator
+     */
+    String process(String line, long lineNumber) {
+        return operation.equals(App.Operation.ENCODE) ? encode(hrp, line, lineNumber) : decode(line, lineNumber);
+    }
+
+    /**
+     * Encodes payload in input format.
+     *
+     * @param hrp human-readable part
+     * @param payload payload in input format
+     * @param lineNumber number of line (starting from 1), used in failure messages
+     * @return line of output, without line terminator
+     */
+    String encode(String hrp, String payload, long lineNumber) {
+        byte[] data;
+        try {
+            data = App.textToBytes(payload, inputFormat);
+        } catch (IllegalArgumentException e) {
+            return failure(lineNumber, "Invalid input format!");
+        }
+        String output = Encoder.bech32mEncode(hrp, data);
+        return output != null ? output : failure(lineNumber, "Encoding failed!");
+    }
+
+    /**
+     * Decodes the message.
+     *
+     * @param line message
+     * @param lineNumber number of line (starting from 1), used in failure messages
+     * @return line of output, without line terminator
+     */
+    String decode(String line, long lineNumber) {
+        if (cache != null) {
+            Bech32mData data = cache.decode(line);
+            if (!data.isValid()) {
+                return failure(lineNumber, "Decoding failed!");
+            }
+            return format(data.getHrp(), App.bytesToText(data.getData(), outputFormat));
+        }
+
+        if (symbols.length < line.length()) {
+            symbols = new byte[line.length()];
+        }
+        Decoder.decode(line, symbols, 0, result);
+        if (!result.isValid()) {
+            return failure(lineNumber, "Decoding failed!");
+        }
+        String payload = App.bytesToText(Arrays.copyOf(symbols, result.getPayloadLength()), outputFormat);
+        return format(result.hrp(line), payload);
+    }
+
+    private static String format(String hrp, String payload) {
+        return payload.isEmpty() ? hrp : hrp + ' ' + payload;
+    }
+
+    static String failure(long lineNumber, String message) {
+        return "Line " + lineNumber + ": " + message;
+    }
+}
@@ -0,0 +1,44 @@
+package org.example;
+
+/**
+ * Checksum variant of the message, given by the constant the checksum residue is compared with.
+ */
+public enum Bech32Variant {
+    /**
+     * Original Bech32 (BIP173)
+     */
+    BECH32(Bech32mUtils.BECH32_CONST),
+    /**
+     * Bech32m (BIP350)
+     */
+    BECH32M(Bech32mUtils.BECH32M_CONST);
+
+    private final int constant;
+
+    Bech32Variant(int constant) {
+        this.constant = constant;
+    }
+
+    /**
+     * @return checksum constant of the variant
+     */
+    public int getConstant() {
+        return constant;
+    }
+
+    /**
+     * Finds variant matching checksum residue (polymod of whole message).
+     *
+     * @param residue checksum residue
+     * @return matching variant, null if the checksum is not valid in any variant
+     */
+    public static Bech32Variant ofResidue(int residue) {
+        if (residue == Bech32mUtils.BECH32M_CONST) {
+            return BECH32M;
+        }
+        if (residue == Bech32mUtils.BECH32_CONST) {
+            return BECH32;
+        }
+        return null;
+    }
+}
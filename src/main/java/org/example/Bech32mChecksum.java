@@ -0,0 +1,207 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Incremental computation of the Bech32m checksum.
+ * <p>
+ * Human-readable part and data symbols are folded into running state one by one,
+ * so no expanded or concatenated arrays have to be created. Typical usage:
+ * <pre>
+ *     checksum.reset().updateHrp(hrp).update(data, 0, data.length).finish(dst, offset);
+ * </pre>
+ * Instance can be reused after {@link #reset()}, it is not thread-safe.
+ */
+public class Bech32mChecksum {
+
+	private int state = 1;
+
+	/**
+	 * Resets the checksum to initial state.
+	 *
+	 * @return this checksum
+	 */
+	public Bech32mChecksum reset() {
+		state = 1;
+		return this;
+	}
+
+	/**
+	 * Resets the checksum to state after folding expanded human-readable part,
+	 * which was precomputed by {@link HrpCache}.
+	 *
+	 * @param prefix precomputed human-readable part
+	 * @return this checksum
+	 */
+	public Bech32mChecksum reset(HrpCache.Prefix prefix) {
+		state = prefix.getState();
+		return this;
+	}
+
+	/**
+	 * Folds expanded human-readable part into the checksum. Uppercase letters are treated
+	 * as lowercase ones, as HRP is always lowercase in checksum computation.
+	 *
+	 * @param hrp human-readable part
+	 * @return this checksum
+	 */
+	public Bech32mChecksum updateHrp(CharSequence hrp) {
+		return updateHrp(hrp, 0, hrp.length());
+	}
+
+	/**
+	 * Folds expanded human-readable part located within given range into the checksum.
+	 *
+	 * @param input characters containing human-readable part
+	 * @param start index of first character of human-readable part
+	 * @param end index after the last character of human-readable part
+	 * @return this checksum
+	 * @see #updateHrp(CharSequence)
+	 */
+	public Bech32mChecksum updateHrp(CharSequence input, int start, int end) {
+		int checksum = state;
+
+		// expanded HRP: high bits of all characters, zero, low bits of all characters
+		for (int i = start; i < end; i++) {
+			checksum = Bech32mUtils.polymodStep(checksum, Bech32mUtils.toLowerCase(input.charAt(i)) >>> 5);
+		}
+		checksum = Bech32mUtils.polymodStep(checksum, 0);
+		for (int i = start; i < end; i++) {
+			checksum = Bech32mUtils.polymodStep(checksum, input.charAt(i) & 0x1F);
+		}
+
+		state = checksum;
+		return this;
+	}
+
+	/**
+	 * Folds one data symbol into the checksum.
+	 *
+	 * @param symbol 5-bit value
+	 * @return this checksum
+	 */
+	public Bech32mChecksum update(int symbol) {
+		state = Bech32mUtils.polymodStep(state, symbol);
+		return this;
+	}
+
+	/**
+	 * Folds data symbols into the checksum.
+	 *
+	 * @param symbols 5-bit values
+	 * @param offset index of first symbol to be used
+	 * @param length number of symbols to be used
+	 * @return this checksum
+	 */
+	public Bech32mChecksum update(byte[] symbols, int offset, int length) {
+		state = Bech32mUtils.bech32Polymod(state, symbols, offset, length);
+		return this;
+	}
+
+	/**
+	 * Folds data symbols between position and limit of given buffer into the checksum.
+	 * Position of the buffer is not changed.
+	 *
+	 * @param symbols 5-bit values
+	 * @return this checksum
+	 */
+	public Bech32mChecksum update(ByteBuffer symbols) {
+		if (symbols.hasArray()) {
+			return update(symbols.array(), symbols.arrayOffset() + symbols.position(), symbols.remaining());
+		}
+		int checksum = state;
+		for (int i = symbols.position(); i < symbols.limit(); i++) {
+			checksum = Bech32mUtils.polymodStep(checksum, symbols.get(i) & 0xFF);
+		}
+		state = checksum;
+		return this;
+	}
+
+	/**
+	 * Completes the computation of checksum for all symbols folded so far.
+	 * The state is not changed, so more symbols can be folded afterwards.
+	 *
+	 * @return all checksum symbols packed into single int, first symbol in the highest bits
+	 * @see #symbol(int, int)
+	 */
+	public int finish() {
+		return finish(Bech32mUtils.BECH32M_CONST);
+	}
+
+	/**
+	 * Completes the computation of checksum with given checksum constant,
+	 * e.g. {@link Bech32mUtils#BECH32_CONST} for original Bech32 checksum.
+	 *
+	 * @param constant checksum constant
+	 * @return all checksum symbols packed into single int, first symbol in the highest bits
+	 * @see #finish()
+	 */
+	public int finish(int constant) {
+		int checksum = state;
+		for (int i = 0; i < Bech32mUtils.CHECKSUM_LEN; i++) {
+			checksum = Bech32mUtils.polymodStep(checksum, 0);
+		}
+		return checksum ^ constant;
+	}
+
+	/**
+	 * Completes the computation of checksum and writes its symbols to given array.
+	 *
+	 * @param dst destination array
+	 * @param offset index in dst where first of {@link Bech32mUtils#CHECKSUM_LEN} symbols is written
+	 */
+	public void finish(byte[] dst, int offset) {
+		int checksum = finish();
+		for (int i = 0; i < Bech32mUtils.CHECKSUM_LEN; i++) {
+			dst[offset + i] = (byte) symbol(checksum, i);
+		}
+	}
+
+	/**
+	 * Checks whether symbols folded so far (data followed by checksum) form valid Bech32m checksum.
+	 *
+	 * @return true if checksum is valid, false otherwise
+	 */
+	public boolean verify() {
+		return verify(Bech32mUtils.BECH32M_CONST);
+	}
+
+	/**
+	 * Checks whether symbols folded so far form valid checksum with given checksum constant.
+	 *
+	 * @param constant checksum constant
+	 * @return true if checksum is valid, false otherwise
+	 * @see #verify()
+	 */
+	public boolean verify(int constant) {
+		return state == constant;
+	}
+
+	/**
+	 * Detects checksum variant of symbols folded so far, both variants are checked with
+	 * the single residue computed.
+	 *
+	 * @return matching variant, null if checksum is not valid in any variant
+	 */
+	public Bech32Variant variant() {
+		return Bech32Variant.ofResidue(state);
+	}
+
+	/**
+	 * Extracts one symbol of checksum returned by {@link #finish()}.
+	 *
+	 * @param checksum packed checksum
+	 * @param index index of symbol, from 0 to {@link Bech32mUtils#CHECKSUM_LEN} - 1
+	 * @return 5-bit value
+	 */
+	public static int symbol(int checksum, int index) {
+		return (checksum >>> 5 * (Bech32mUtils.CHECKSUM_LEN - 1 - index)) & 0x1F;
+	}
+
+	/**
+	 * @return raw polymod state
+	 */
+	int getState() {
+		return state;
+	}
+}
@@ -0,0 +1,152 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Immutable result of decoding one Bech32m message: human-readable part and payload,
+ * or status describing why the message is invalid.
+ */
+public final class Bech32mData {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private static final Bech32mData[] INVALID = new Bech32mData[CodecStatus.values().length];
+
+    static {
+        for (CodecStatus status : CodecStatus.values()) {
+            INVALID[status.ordinal()] = new Bech32mData(status, null, EMPTY, null);
+        }
+    }
+
+    private final CodecStatus status;
+    private final String hrp;
+    private final byte[] data;
+    private final Bech32Variant variant;
+
+    private Bech32mData(CodecStatus status, String hrp, byte[] data, Bech32Variant variant) {
+        this.status = status;
+        this.hrp = hrp;
+        this.data = data;
+        this.variant = variant;
+    }
+
+    /**
+     * Creates valid result.
+     *
+     * @param hrp human-readable part
+     * @param data payload symbols (5-bit values), array is copied
+     * @return valid result
+     */
+    public static Bech32mData of(String hrp, byte[] data) {
+        return of(hrp, data, 0, data.length);
+    }
+
+    /**
+     * Creates valid result.
+     *
+     * @param hrp human-readable part
+     * @param data array containing payload symbols (5-bit values), symbols are copied
+     * @param offset index of first payload symbol
+     * @param length number of payload symbols
+     * @return valid result
+     */
+    public static Bech32mData of(String hrp, byte[] data, int offset, int length) {
+        return of(hrp, data, offset, length, Bech32Variant.BECH32M);
+    }
+
+    static Bech32mData of(String hrp, byte[] data, int offset, int length, Bech32Variant variant) {
+        return new Bech32mData(CodecStatus.OK, hrp, length == 0 ? EMPTY : Arrays.copyOfRange(data, offset, offset + length),
+                variant);
+    }
+
+    /**
+     * Returns shared invalid result for given status.
+     *
+     * @param status reason of failure, must not be {@link CodecStatus#OK}
+     * @return invalid result
+     */
+    public static Bech32mData invalid(CodecStatus status) {
+        if (status == CodecStatus.OK) {
+            throw new IllegalArgumentException("Invalid result can not have status " + status);
+        }
+        return INVALID[status.ordinal()];
+    }
+
+    /**
+     * @return status of decoding
+     */
+    public CodecStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * @return true if message was decoded successfully, false otherwise
+     */
+    public boolean isValid() {
+        return status == CodecStatus.OK;
+    }
+
+    /**
+     * @return checksum variant of the message, null for invalid result
+     */
+    public Bech32Variant getVariant() {
+        return variant;
+    }
+
+    /**
+     * @return lowercase human-readable part, null for invalid result
+     */
+    public String getHrp() {
+        return hrp;
+    }
+
+    /**
+     * @return copy of payload symbols (5-bit values), empty for invalid result
+     */
+    public byte[] getData() {
+        return data.clone();
+    }
+
+    /**
+     * @return number of payload symbols
+     */
+    public int getDataLength() {
+        return data.length;
+    }
+
+    /**
+     * @param index index of payload symbol
+     * @return payload symbol (5-bit value)
+     */
+    public byte getData(int index) {
+        return data[index];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Bech32mData)) {
+            return false;
+        }
+        Bech32mData other = (Bech32mData) o;
+        return status == other.status
+                && variant == other.variant
+                && (hrp == null ? other.hrp == null : hrp.equals(other.hrp))
+                && Arrays.equals(data, other.data);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 31 * status.hashCode() + (variant == null ? 0 : variant.hashCode());
+        return 31 * (31 * hash + (hrp == null ? 0 : hrp.hashCode())) + Arrays.hashCode(data);
+    }
+
+    @Override
+    public String toString() {
+        return isValid()
+                ? "Bech32mData{hrp=" + hrp + ", data=" + Arrays.toString(data) + "}"
+                : "Bech32mData{status=" + status + "}";
+    }
+}
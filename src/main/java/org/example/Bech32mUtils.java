@@ -1,6 +1,8 @@
 package org.example;
 
-import java.util.Locale;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Class provides common functionality used in both encoding and decoding.
@@ -16,10 +18,78 @@ public class Bech32mUtils {
 
 	public static final int BECH32M_CONST = 0x2bc830a3;
 
+	/**
+	 * Checksum constant of original Bech32 (BIP173), used by Segwit version 0 addresses
+	 */
+	public static final int BECH32_CONST = 1;
+
 	public static final byte CHECKSUM_LEN = 6;
 
+	public static final int MAX_LENGTH = 90;
+
+	/**
+	 * Maximal length of human-readable part, also for messages longer than {@link #MAX_LENGTH}
+	 */
+	public static final int MAX_HRP_LENGTH = 83;
+
+	/**
+	 * Default minimal number of items in batch to be processed in parallel
+	 */
+	public static final int PARALLEL_THRESHOLD = 4096;
+
 	public static final String BECH32M_CHARSET = "qpzry9x8gf2tvdw0s3jn54khce6mua7l";
 
+	/**
+	 * Characters of charset indexed by unsigned byte value, 0 for values outside of charset (32-255).
+	 */
+	private static final char[] CHARSET_CHARS = new char[256];
+
+	/**
+	 * Values of ASCII characters (both lowercase and uppercase), -1 for characters outside of charset.
+	 */
+	private static final byte[] CHARSET_VALUES = new byte[128];
+
+	/**
+	 * Generator coefficients of the BCH code used for checksum computation.
+	 */
+	private static final int[] GENERATOR = {0x3b6a57b2, 0x26508e6d, 0x1ea119fa, 0x3d4233dd, 0x2a1462b3};
+
+	/**
+	 * XOR of generator coefficients selected by bits of 5-bit index
+	 * (top 5 bits of checksum, which are shifted out by one polymod step).
+	 */
+	private static final int[] POLYMOD_TABLE = new int[32];
+
+	/**
+	 * Combined contribution of generator coefficients for two polymod steps at once,
+	 * indexed by top 10 bits of checksum.
+	 */
+	private static final int[] POLYMOD_TABLE_2 = new int[1024];
+
+	static {
+		Arrays.fill(CHARSET_VALUES, (byte) -1);
+		for (int value = 0; value < BECH32M_CHARSET.length(); value++) {
+			char c = BECH32M_CHARSET.charAt(value);
+			CHARSET_CHARS[value] = c;
+			CHARSET_VALUES[c] = (byte) value;
+			CHARSET_VALUES[Character.toUpperCase(c)] = (byte) value;
+		}
+
+		for (int top = 0; top < POLYMOD_TABLE.length; top++) {
+			for (int j = 0; j < 5; j++) {
+				POLYMOD_TABLE[top] ^= ((top >> j) & 1) == 1 ? GENERATOR[j] : 0;
+			}
+		}
+
+		// first step shifts out top 5 bits, second step shifts out next 5 bits
+		// changed by generator coefficients XOR-ed in during the first step
+		for (int top = 0; top < POLYMOD_TABLE_2.length; top++) {
+			int first = POLYMOD_TABLE[top >>> 5];
+			int second = POLYMOD_TABLE[(top & 0x1F) ^ (first >>> 25)];
+			POLYMOD_TABLE_2[top] = ((first & 0x1FFFFFF) << 5) ^ second;
+		}
+	}
+
 	/**
 	 * Computes the Bech32 checksum.
 	 *
@@ -27,23 +97,54 @@ public class Bech32mUtils {
 	 * @return checksum
 	 */
 	public static int bech32Polymod(byte[] values) {
-		int[] generator = {0x3b6a57b2, 0x26508e6d, 0x1ea119fa, 0x3d4233dd, 0x2a1462b3};
+		return bech32Polymod(1, values, 0, values.length);
+	}
 
-		int checksum = 1;
-		int top;
+	/**
+	 * Continues the Bech32 checksum computation from given state.
+	 * <p>
+	 * Values are consumed two at a time using precomputed table, initial state of whole
+	 * computation is 1 (as used by {@link #bech32Polymod(byte[])}). Long inputs (several thousands of values)
+	 * are split into chunks computed in parallel on common {@link java.util.concurrent.ForkJoinPool}.
+	 *
+	 * @param checksum state of checksum computation after previous values
+	 * @param values used to compute checksum
+	 * @param offset index of first value to be used
+	 * @param length number of values to be used
+	 * @return checksum
+	 */
+	public static int bech32Polymod(int checksum, byte[] values, int offset, int length) {
+		if (length >= ChunkedPolymod.POLYMOD_PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1) {
+			return ChunkedPolymod.polymod(checksum, values, offset, length, ForkJoinPool.commonPool());
+		}
+		int end = offset + length;
+		int charIndex = offset;
 
-		for (int charIndex = 0; charIndex < values.length; charIndex++) {
-			top = (checksum >>> 25) & 0xFF;
-			checksum = ((checksum & 0x1FFFFFF) << 5) ^ (values[charIndex] & 0xFF);
+		for (; charIndex + 1 < end; charIndex += 2) {
+			checksum = ((checksum & 0xFFFFF) << 10)
+					^ ((values[charIndex] & 0xFF) << 5)
+					^ (values[charIndex + 1] & 0xFF)
+					^ POLYMOD_TABLE_2[(checksum >>> 20) & 0x3FF];
+		}
 
-			for (int j = 0; j < 5; j++) {
-				checksum ^= ((top >> j) & 1) == 1 ? generator[j] : 0;
-			}
+		if (charIndex < end) {
+			checksum = polymodStep(checksum, values[charIndex] & 0xFF);
 		}
 
 		return checksum;
 	}
 
+	/**
+	 * Performs a single step of the Bech32 checksum computation.
+	 *
+	 * @param checksum state of checksum computation after previous values
+	 * @param value next value to be used
+	 * @return checksum
+	 */
+	public static int polymodStep(int checksum, int value) {
+		return ((checksum & 0x1FFFFFF) << 5) ^ value ^ POLYMOD_TABLE[(checksum >>> 25) & 0x1F];
+	}
+
 	/**
 	 * Expand human-readable part (hrp) into values for checksum computation.
 	 *
@@ -68,6 +169,37 @@ public class Bech32mUtils {
 		return expanded;
 	}
 
+	/**
+	 * Maps character to its 5-bit value, uppercase characters are mapped the same as lowercase ones.
+	 *
+	 * @param c character
+	 * @return 5-bit value, -1 if character is not part of charset
+	 */
+	public static int charsetValue(char c) {
+		return c < CHARSET_VALUES.length ? CHARSET_VALUES[c] : -1;
+	}
+
+	/**
+	 * Maps 5-bit value to its (lowercase) character. Only low 8 bits of the value are used,
+	 * so byte values can be passed directly.
+	 *
+	 * @param value 5-bit value
+	 * @return character, 0 if value is not valid (not in range of [0;31])
+	 */
+	public static char charsetChar(int value) {
+		return CHARSET_CHARS[value & 0xFF];
+	}
+
+	/**
+	 * Converts ASCII uppercase letter to lowercase, other characters are returned unchanged.
+	 *
+	 * @param c character
+	 * @return lowercase character
+	 */
+	public static char toLowerCase(char c) {
+		return c >= 'A' && c <= 'Z' ? (char) (c | 0x20) : c;
+	}
+
 	/**
 	 * Checks validity of HRP (Human-readable part).
 	 * <p>
@@ -75,35 +207,32 @@ public class Bech32mUtils {
 	 * 1.) HRP is either in lowercase or uppercase, but not both (only one set of characters)
 	 * 2.) HRP contains only valid characters (33-126 value range)
 	 * 3.) HRP has valid length (range of [1;83])
+	 * <p>
+	 * All checks are done in single pass, which stops at the first invalid character. Results for recently
+	 * used HRPs are cached by {@link HrpCache}, see {@link HrpCache.Prefix#isValid()}.
 	 *
 	 * @param hrp human-readable part
 	 * @return Special constant int value representing SUCCESS if hrp is valid, FAILURE otherwise
 	 */
 	public static int isHRPValid(final String hrp) {
-
-		int isValid = Constant.SUCCESS;
-		boolean containsLetter = hrp.matches(".*[a-zA-Z].*");
-
-		// only one of them can be true (it is either lowercase or uppercase)
-		if (hrp.equals(hrp.toLowerCase(Locale.ROOT)) == hrp.equals(hrp.toUpperCase(Locale.ROOT))) {
-			// last check, if HRP does not contain any letter, lowercase and uppercase will be the same,
-			// thus it must contain at least one letter to make it invalid
-			if (containsLetter) {
-				isValid = Constant.FAILURE;
-			}
+		if (hrp.length() < 1 || hrp.length() > MAX_HRP_LENGTH) {
+			return Constant.FAILURE;
 		}
 
-		for (char x : hrp.toCharArray()) {
+		boolean hasLower = false;
+		boolean hasUpper = false;
+		for (int i = 0; i < hrp.length(); i++) {
+			char x = hrp.charAt(i);
 			if (x < 33 || x > 126) {
-				isValid = Constant.FAILURE;
+				return Constant.FAILURE;
+			}
+			hasLower |= x >= 'a' && x <= 'z';
+			hasUpper |= x >= 'A' && x <= 'Z';
+			if (hasLower && hasUpper) {
+				return Constant.FAILURE;
 			}
 		}
-
-		if (hrp.length() < 1 || hrp.length() > 83) {
-			isValid = Constant.FAILURE;
-		}
-
-		return isValid;
+		return Constant.SUCCESS;
 	}
 
 	/**
@@ -113,13 +242,40 @@ public class Bech32mUtils {
 	 * @return Special constant int value representing SUCCESS if data is valid, FAILURE otherwise
 	 */
 	public static int isEncodeInputDataValid(byte[] data) {
-		int isValid = Constant.SUCCESS;
-		for (byte value : data) {
-			if (value >= 32) {
-				isValid = Constant.FAILURE;
+		return isEncodeInputDataValid(data, 0, data.length);
+	}
+
+	/**
+	 * Checks whether all input bytes for encoding within given range have value below 32 (and not negative).
+	 *
+	 * @param data array containing payload
+	 * @param offset index of first payload value
+	 * @param length number of payload values
+	 * @return Special constant int value representing SUCCESS if data is valid, FAILURE otherwise
+	 */
+	public static int isEncodeInputDataValid(byte[] data, int offset, int length) {
+		for (int i = offset; i < offset + length; i++) {
+			if (data[i] >= 32 || data[i] < 0) {
+				return Constant.FAILURE;
+			}
+		}
+		return Constant.SUCCESS;
+	}
+
+	/**
+	 * Checks whether all input bytes for encoding (between position and limit of buffer) have value below 32.
+	 * Position of the buffer is not changed.
+	 *
+	 * @param data payload
+	 * @return Special constant int value representing SUCCESS if data is valid, FAILURE otherwise
+	 */
+	public static int isEncodeInputDataValid(ByteBuffer data) {
+		for (int i = data.position(); i < data.limit(); i++) {
+			if (data.get(i) >= 32 || data.get(i) < 0) {
+				return Constant.FAILURE;
 			}
 		}
-		return isValid;
+		return Constant.SUCCESS;
 	}
 
 }
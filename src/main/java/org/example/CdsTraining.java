@@ -0,0 +1,32 @@
+package org.example;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+/**
+ * Training run used by the {@code appcds} Maven profile to list classes loaded by the CLI.
+ * <p>
+ * Runs the common encode and decode invocations of {@link App}, so the class list (and the AppCDS archive
+ * created from it) covers both operations and all text formats. Output is discarded.
+ */
+final class CdsTraining {
+
+    /**
+     * private override of default public constructor
+     */
+    private CdsTraining() {
+    }
+
+    public static void main(String[] args) {
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(new ByteArrayOutputStream()));
+        try {
+            App.main(new String[]{"-e", "--hrp", "bc", "AAECAwQ="});
+            App.main(new String[]{"-e", "--hrp", "bc", "--in-format", "hex", "0001020304"});
+            App.main(new String[]{"-d", "a1lqfn3a"});
+            App.main(new String[]{"-d", "--out-format", "hex", "abcdef1l7aum6echk45nj3s0wdvt2fg8x9yrzpqzd3ryx"});
+        } finally {
+            System.setOut(originalOut);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package org.example;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Checksum computation of long inputs split into chunks processed in parallel.
+ * <p>
+ * Polymod step is linear over GF(2) in the checksum state, so state after processing values
+ * from state s equals M<sup>n</sup>(s) XOR state after processing the same values from zero state,
+ * where M<sup>n</sup> is n steps with zero values. Chunks are therefore computed independently from zero
+ * state and combined by shifting the state of preceding chunks by length of the following ones.
+ * Shift by n steps is composed from precomputed shifts by powers of two, each of them applied
+ * to 30-bit state as six table lookups by 5-bit groups.
+ */
+final class ChunkedPolymod {
+
+	/**
+	 * Minimal number of values computed in parallel, sequential computation of shorter inputs
+	 * (about 2 ns per value) is faster than forking and joining the tasks (see {@code PolymodBenchmark})
+	 */
+	static final int POLYMOD_PARALLEL_THRESHOLD = 1 << 13;
+
+	/**
+	 * Maximal number of values of one parallel task
+	 */
+	private static final int CHUNK_SIZE = 1 << 11;
+
+	private static final int STATE_GROUPS = 6;
+
+	/**
+	 * SHIFTS[k][group][bits] is state after 2^k zero steps from state holding given 5 bits in given group
+	 */
+	private static final int[][][] SHIFTS = new int[31][STATE_GROUPS][32];
+
+	static {
+		for (int group = 0; group < STATE_GROUPS; group++) {
+			for (int bits = 0; bits < 32; bits++) {
+				SHIFTS[0][group][bits] = Bech32mUtils.polymodStep(bits << 5 * group, 0);
+			}
+		}
+		for (int k = 1; k < SHIFTS.length; k++) {
+			for (int group = 0; group < STATE_GROUPS; group++) {
+				for (int bits = 0; bits < 32; bits++) {
+					SHIFTS[k][group][bits] = apply(SHIFTS[k - 1], apply(SHIFTS[k - 1], bits << 5 * group));
+				}
+			}
+		}
+	}
+
+	/**
+	 * private override of default public constructor
+	 */
+	private ChunkedPolymod() {
+	}
+
+	private static int apply(int[][] shift, int state) {
+		int shifted = 0;
+		for (int group = 0; group < STATE_GROUPS; group++) {
+			shifted ^= shift[group][(state >>> 5 * group) & 0x1F];
+		}
+		return shifted;
+	}
+
+	/**
+	 * Computes checksum state after given number of zero values, in at most 31 table applications.
+	 *
+	 * @param state checksum state
+	 * @param steps number of zero values
+	 * @return shifted state
+	 */
+	static int shift(int state, int steps) {
+		for (int k = 0; steps != 0; k++, steps >>>= 1) {
+			if ((steps & 1) != 0) {
+				state = apply(SHIFTS[k], state);
+			}
+		}
+		return state;
+	}
+
+	/**
+	 * Continues the checksum computation from given state, chunks of values are computed in parallel.
+	 *
+	 * @param checksum state of checksum computation after previous values
+	 * @param values used to compute checksum
+	 * @param offset index of first value to be used
+	 * @param length number of values to be used
+	 * @param pool pool computing the chunks
+	 * @return checksum
+	 */
+	static int polymod(int checksum, byte[] values, int offset, int length, ForkJoinPool pool) {
+		int fromZero = pool.invoke(new ChunkTask(values, offset, offset + length));
+		return shift(checksum, length) ^ fromZero;
+	}
+
+	/**
+	 * Computes checksum of range of values from zero state.
+	 */
+	private static final class ChunkTask extends RecursiveTask<Integer> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final byte[] values;
+		private final int from;
+		private final int to;
+
+		private ChunkTask(byte[] values, int from, int to) {
+			this.values = values;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected Integer compute() {
+			if (to - from <= CHUNK_SIZE) {
+				return Bech32mUtils.bech32Polymod(0, values, from, to - from);
+			}
+			int middle = (from + to) >>> 1;
+			ChunkTask right = new ChunkTask(values, middle, to);
+			right.fork();
+			int left = new ChunkTask(values, from, middle).compute();
+			return shift(left, to - middle) ^ right.join();
+		}
+	}
+}
@@ -0,0 +1,19 @@
+package org.example;
+
+/**
+ * Listener notified about every monitored encode/decode operation, see {@link CodecMetrics#addListener(CodecListener)}.
+ * <p>
+ * Listener is called synchronously on the thread performing the operation, so it should be fast
+ * and it must be thread-safe.
+ */
+public interface CodecListener {
+
+	/**
+	 * Called after the operation finished.
+	 *
+	 * @param operation type of operation
+	 * @param status result status of the operation
+	 * @param nanos duration of the operation in nanoseconds
+	 */
+	void onOperation(CodecMetrics.Operation operation, CodecStatus status, long nanos);
+}
@@ -0,0 +1,296 @@
+package org.example;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Optional instrumentation of encoding and decoding: number of calls by result status
+ * and latency histograms, exposed through JMX ({@link #registerMBean()}) and listeners.
+ * <p>
+ * Monitored operations are all encode methods of {@link Encoder} (batch encoding per payload)
+ * and all decode methods of {@link Decoder}, except Segwit encoding and decoding. Metrics are disabled by default
+ * (unless system property {@value #ENABLED_PROPERTY} is true); disabled metrics cost one read
+ * of a static field per operation. Counters are {@link LongAdder}s, so recording does not contend
+ * between threads.
+ */
+public final class CodecMetrics {
+
+	/**
+	 * System property which enables metrics at startup
+	 */
+	public static final String ENABLED_PROPERTY = "bech32m.metrics";
+
+	/**
+	 * Name under which the MBean is registered
+	 */
+	public static final String OBJECT_NAME = "org.example:type=CodecMetrics";
+
+	/**
+	 * Number of latency histogram buckets, bucket i &gt; 0 counts latencies in range [2^(i-1), 2^i) nanoseconds,
+	 * bucket 0 counts zero latencies and the last bucket counts also all longer latencies
+	 */
+	public static final int HISTOGRAM_BUCKETS = 40;
+
+	/**
+	 * Monitored operation
+	 */
+	public enum Operation {
+		ENCODE,
+		DECODE
+	}
+
+	private static final CodecListener[] NO_LISTENERS = new CodecListener[0];
+
+	private static volatile boolean enabled = Boolean.getBoolean(ENABLED_PROPERTY);
+
+	private static volatile CodecListener[] listeners = NO_LISTENERS;
+
+	/**
+	 * private override of default public constructor
+	 */
+	private CodecMetrics() {
+	}
+
+	/**
+	 * @return true if operations are monitored, false otherwise
+	 */
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Enables or disables monitoring, collected values are kept.
+	 *
+	 * @param enabled true to monitor operations
+	 */
+	public static void setEnabled(boolean enabled) {
+		CodecMetrics.enabled = enabled;
+	}
+
+	/**
+	 * Records finished operation, called only if metrics are enabled.
+	 *
+	 * @param operation type of operation
+	 * @param status result status
+	 * @param nanos duration of the operation
+	 */
+	static void record(Operation operation, CodecStatus status, long nanos) {
+		Counters.COUNTS[operation.ordinal()][status.ordinal()].increment();
+		Counters.LATENCIES[operation.ordinal()][bucket(nanos)].increment();
+		for (CodecListener listener : listeners) {
+			listener.onOperation(operation, status, nanos);
+		}
+	}
+
+	private static int bucket(long nanos) {
+		return Math.min(HISTOGRAM_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(Math.max(0, nanos)));
+	}
+
+	/**
+	 * @param operation type of operation
+	 * @return number of monitored calls
+	 */
+	public static long getCalls(Operation operation) {
+		long calls = 0;
+		for (LongAdder count : Counters.COUNTS[operation.ordinal()]) {
+			calls += count.sum();
+		}
+		return calls;
+	}
+
+	/**
+	 * @param operation type of operation
+	 * @param status result status
+	 * @return number of monitored calls which resulted in given status
+	 */
+	public static long getCount(Operation operation, CodecStatus status) {
+		return Counters.COUNTS[operation.ordinal()][status.ordinal()].sum();
+	}
+
+	/**
+	 * @param operation type of operation
+	 * @return number of monitored calls which failed
+	 */
+	public static long getFailures(Operation operation) {
+		return getCalls(operation) - getCount(operation, CodecStatus.OK);
+	}
+
+	/**
+	 * @param operation type of operation
+	 * @return number of failed calls by failure reason, reasons which did not occur are omitted
+	 */
+	public static Map<String, Long> getFailureCounts(Operation operation) {
+		Map<String, Long> failures = new LinkedHashMap<>();
+		for (CodecStatus status : CodecStatus.values()) {
+			long count = getCount(operation, status);
+			if (status != CodecStatus.OK && count > 0) {
+				failures.put(status.name(), count);
+			}
+		}
+		return failures;
+	}
+
+	/**
+	 * @param operation type of operation
+	 * @return number of calls in every latency bucket, see {@link #HISTOGRAM_BUCKETS}
+	 */
+	public static long[] getLatencyHistogram(Operation operation) {
+		long[] histogram = new long[HISTOGRAM_BUCKETS];
+		for (int i = 0; i < histogram.length; i++) {
+			histogram[i] = Counters.LATENCIES[operation.ordinal()][i].sum();
+		}
+		return histogram;
+	}
+
+	/**
+	 * Resets all counters and histograms. Operations running concurrently may or may not be counted.
+	 */
+	public static void reset() {
+		for (LongAdder[][] adders : Arrays.asList(Counters.COUNTS, Counters.LATENCIES)) {
+			for (LongAdder[] row : adders) {
+				for (LongAdder adder : row) {
+					adder.reset();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds listener notified about every monitored operation (while metrics are enabled).
+	 *
+	 * @param listener listener
+	 */
+	public static synchronized void addListener(CodecListener listener) {
+		CodecListener[] extended = Arrays.copyOf(listeners, listeners.length + 1);
+		extended[listeners.length] = listener;
+		listeners = extended;
+	}
+
+	/**
+	 * Removes listener added by {@link #addListener(CodecListener)}.
+	 *
+	 * @param listener listener
+	 */
+	public static synchronized void removeListener(CodecListener listener) {
+		for (int i = 0; i < listeners.length; i++) {
+			if (listeners[i] == listener) {
+				CodecListener[] reduced = new CodecListener[listeners.length - 1];
+				System.arraycopy(listeners, 0, reduced, 0, i);
+				System.arraycopy(listeners, i + 1, reduced, i, reduced.length - i);
+				listeners = reduced;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Registers metrics MBean to platform MBean server under {@value #OBJECT_NAME}, if not registered yet.
+	 *
+	 * @throws JMException if registration fails
+	 */
+	public static synchronized void registerMBean() throws JMException {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName(OBJECT_NAME);
+		if (!server.isRegistered(name)) {
+			server.registerMBean(new StandardMBean(new MBean(), CodecMetricsMXBean.class, true), name);
+		}
+	}
+
+	/**
+	 * Unregisters metrics MBean from platform MBean server, if registered.
+	 *
+	 * @throws JMException if unregistration fails
+	 */
+	public static synchronized void unregisterMBean() throws JMException {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName(OBJECT_NAME);
+		if (server.isRegistered(name)) {
+			server.unregisterMBean(name);
+		}
+	}
+
+	/**
+	 * Counters are initialized only when first used, so startup of disabled metrics does not create them.
+	 */
+	private static final class Counters {
+
+		private static final LongAdder[][] COUNTS = adders(CodecStatus.values().length);
+
+		private static final LongAdder[][] LATENCIES = adders(HISTOGRAM_BUCKETS);
+
+		private static LongAdder[][] adders(int count) {
+			LongAdder[][] adders = new LongAdder[Operation.values().length][count];
+			for (LongAdder[] row : adders) {
+				for (int i = 0; i < row.length; i++) {
+					row[i] = new LongAdder();
+				}
+			}
+			return adders;
+		}
+	}
+
+	private static final class MBean implements CodecMetricsMXBean {
+
+		@Override
+		public boolean isEnabled() {
+			return CodecMetrics.isEnabled();
+		}
+
+		@Override
+		public void setEnabled(boolean enabled) {
+			CodecMetrics.setEnabled(enabled);
+		}
+
+		@Override
+		public long getEncodeCalls() {
+			return getCalls(Operation.ENCODE);
+		}
+
+		@Override
+		public long getEncodeFailures() {
+			return getFailures(Operation.ENCODE);
+		}
+
+		@Override
+		public long getDecodeCalls() {
+			return getCalls(Operation.DECODE);
+		}
+
+		@Override
+		public long getDecodeFailures() {
+			return getFailures(Operation.DECODE);
+		}
+
+		@Override
+		public Map<String, Long> getEncodeFailureCounts() {
+			return getFailureCounts(Operation.ENCODE);
+		}
+
+		@Override
+		public Map<String, Long> getDecodeFailureCounts() {
+			return getFailureCounts(Operation.DECODE);
+		}
+
+		@Override
+		public long[] getEncodeLatencyHistogram() {
+			return getLatencyHistogram(Operation.ENCODE);
+		}
+
+		@Override
+		public long[] getDecodeLatencyHistogram() {
+			return getLatencyHistogram(Operation.DECODE);
+		}
+
+		@Override
+		public void reset() {
+			CodecMetrics.reset();
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package org.example;
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link CodecMetrics}, registered by {@link CodecMetrics#registerMBean()}.
+ */
+public interface CodecMetricsMXBean {
+
+	boolean isEnabled();
+
+	void setEnabled(boolean enabled);
+
+	long getEncodeCalls();
+
+	long getEncodeFailures();
+
+	long getDecodeCalls();
+
+	long getDecodeFailures();
+
+	/**
+	 * @return number of failed encode calls by failure reason
+	 */
+	Map<String, Long> getEncodeFailureCounts();
+
+	/**
+	 * @return number of failed decode calls by failure reason
+	 */
+	Map<String, Long> getDecodeFailureCounts();
+
+	/**
+	 * @return encode latency histogram, see {@link CodecMetrics#getLatencyHistogram(CodecMetrics.Operation)}
+	 */
+	long[] getEncodeLatencyHistogram();
+
+	/**
+	 * @return decode latency histogram, see {@link CodecMetrics#getLatencyHistogram(CodecMetrics.Operation)}
+	 */
+	long[] getDecodeLatencyHistogram();
+
+	/**
+	 * Resets all counters and histograms.
+	 */
+	void reset();
+}
@@ -0,0 +1,437 @@
+package org.example;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Base of {@link Flow.Processor} wrappers of the codec.
+ * <p>
+ * Items are requested from upstream only when downstream demands them, at most {@code batchSize} items
+ * at once. Items are collected into a batch, which is processed as a single task of the executor once all
+ * requested items arrive, or once {@code flushDelay} elapses since its first item, so slow upstream does
+ * not hold back results of items which already arrived. Up to {@code parallelism} batches are processed
+ * at once and results are emitted in input order, so memory usage is bounded by
+ * {@code batchSize * parallelism} items.
+ * <p>
+ * Processor supports one subscriber. Failure of processing of any item cancels upstream and is signalled
+ * to the subscriber after results of preceding items. Null item or item which was not requested
+ * violates the protocol, it cancels upstream and is signalled to the subscriber immediately.
+ *
+ * @param <T> type of input items
+ * @param <R> type of results
+ */
+abstract class CodecProcessor<T, R> implements Flow.Processor<T, R> {
+
+    /**
+     * Default maximal number of items processed as one batch
+     */
+    static final int DEFAULT_BATCH_SIZE = 256;
+
+    /**
+     * Default maximal time between arrival of item and start of its processing
+     */
+    static final Duration DEFAULT_FLUSH_DELAY = Duration.ofMillis(10);
+
+    private final Executor executor;
+    private final int batchSize;
+    private final int parallelism;
+    private final long flushDelayNanos;
+
+    // serializes signals to downstream: only the thread which increments it from 0 emits, others just mark more work
+    private final AtomicInteger wip = new AtomicInteger();
+
+    // state below is guarded by this
+    private final ArrayDeque<Batch> batches = new ArrayDeque<>();
+    private Batch current;
+    private long outstanding;
+    private Flow.Subscription upstream;
+    private Flow.Subscriber<? super R> downstream;
+    private long demand;
+    private boolean upstreamDone;
+    private Throwable upstreamFailure;
+    private Throwable failure;
+    private boolean terminated;
+
+    /**
+     * @param executor executor processing the batches
+     * @param batchSize maximal number of items of one batch
+     * @param parallelism maximal number of batches processed at once
+     * @param flushDelay maximal time between arrival of item and start of its processing
+     */
+    CodecProcessor(Executor executor, int batchSize, int parallelism, Duration flushDelay) {
+        if (executor == null || flushDelay == null) {
+            throw new NullPointerException(executor == null ? "executor" : "flushDelay");
+        }
+        if (batchSize < 1 || parallelism < 1 || flushDelay.isNegative()) {
+            throw new IllegalArgumentException("Batch size and parallelism must be positive, flush delay not negative");
+        }
+        this.executor = executor;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.flushDelayNanos = flushDelay.toNanos();
+    }
+
+    /**
+     * Processes one item.
+     *
+     * @param item input item
+     * @param scratch buffers of current thread
+     * @return result
+     * @throws RuntimeException if the item can not be processed, it is passed to the subscriber
+     */
+    abstract R process(T item, BatchCodec.Scratch scratch);
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super R> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber");
+        }
+        boolean first;
+        synchronized (this) {
+            first = downstream == null;
+            if (first) {
+                downstream = subscriber;
+            }
+        }
+        if (first) {
+            subscriber.onSubscribe(new Downstream());
+            // upstream may have completed already
+            drain();
+            return;
+        }
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+        subscriber.onError(new IllegalStateException("Processor supports only one subscriber"));
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (subscription == null) {
+            throw new NullPointerException("subscription");
+        }
+        synchronized (this) {
+            if (upstream == null && !terminated) {
+                upstream = subscription;
+                subscription = null;
+            }
+        }
+        if (subscription != null) {
+            subscription.cancel();
+            return;
+        }
+        drain();
+    }
+
+    @Override
+    public void onNext(T item) {
+        if (item == null) {
+            throw new NullPointerException("item");
+        }
+        Batch full = null;
+        Batch started = null;
+        boolean requested = true;
+        synchronized (this) {
+            if (terminated || upstreamDone) {
+                return;
+            }
+            if (outstanding == 0) {
+                requested = false;
+            } else {
+                if (current == null) {
+                    current = new Batch((int) outstanding);
+                    started = current;
+                }
+                current.items[current.count++] = item;
+                if (--outstanding == 0) {
+                    full = current;
+                    current = null;
+                }
+            }
+        }
+        if (!requested) {
+            fail(new IllegalStateException("Item was delivered without being requested"));
+        } else if (full != null) {
+            submit(full);
+        } else if (started != null && flushDelayNanos == 0) {
+            flush(started);
+        } else if (started != null) {
+            Batch batch = started;
+            batch.flush = Scheduler.SCHEDULER.schedule(() -> flush(batch), flushDelayNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Submits partially filled batch, if it is still being filled. Items requested but not delivered yet
+     * are collected into the next batch.
+     */
+    private void flush(Batch batch) {
+        synchronized (this) {
+            if (current != batch) {
+                return;
+            }
+            current = null;
+        }
+        submit(batch);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        if (throwable == null) {
+            throw new NullPointerException("throwable");
+        }
+        finishUpstream(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        finishUpstream(null);
+    }
+
+    private void finishUpstream(Throwable throwable) {
+        Batch partial;
+        synchronized (this) {
+            if (upstreamDone) {
+                return;
+            }
+            upstreamDone = true;
+            upstreamFailure = throwable;
+            partial = current;
+            current = null;
+            outstanding = 0;
+        }
+        if (partial != null) {
+            submit(partial);
+        } else {
+            drain();
+        }
+    }
+
+    /**
+     * Terminates the stream because of protocol violation, without emitting results not emitted yet.
+     */
+    private void fail(Throwable throwable) {
+        Flow.Subscription subscription;
+        synchronized (this) {
+            if (failure != null || terminated) {
+                return;
+            }
+            failure = throwable;
+            subscription = upstream;
+        }
+        if (subscription != null) {
+            subscription.cancel();
+        }
+        drain();
+    }
+
+    private void submit(Batch batch) {
+        if (batch.flush != null) {
+            batch.flush.cancel(false);
+        }
+        synchronized (this) {
+            batches.add(batch);
+        }
+        try {
+            executor.execute(() -> {
+                process(batch);
+                drain();
+            });
+        } catch (RejectedExecutionException e) {
+            batch.failure = e;
+            batch.processed = true;
+            drain();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void process(Batch batch) {
+        BatchCodec.Scratch scratch = BatchCodec.Scratch.get();
+        try {
+            for (int i = 0; i < batch.count; i++) {
+                batch.results[i] = process((T) batch.items[i], scratch);
+                batch.items[i] = null;
+                batch.processedCount = i + 1;
+            }
+        } catch (RuntimeException e) {
+            batch.failure = e;
+        }
+        batch.processed = true;
+    }
+
+    /**
+     * Emits processed batches in order, requests more items from upstream and signals termination.
+     * Runs in one thread at a time; calls from other threads (or reentrant calls) only make it loop again.
+     */
+    @SuppressWarnings("unchecked")
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            Batch head;
+            Flow.Subscriber<? super R> subscriber;
+            while (true) {
+                Throwable violation;
+                synchronized (this) {
+                    if (terminated) {
+                        return;
+                    }
+                    violation = downstream != null ? failure : null;
+                    head = batches.peek();
+                    subscriber = downstream;
+                }
+                if (violation != null) {
+                    terminate(violation, false);
+                    return;
+                }
+                if (head == null || !head.processed) {
+                    break;
+                }
+                while (head.emitted < head.processedCount) {
+                    R result = (R) head.results[head.emitted];
+                    head.results[head.emitted++] = null;
+                    subscriber.onNext(result);
+                }
+                if (head.failure != null) {
+                    terminate(head.failure, true);
+                    return;
+                }
+                synchronized (this) {
+                    batches.poll();
+                }
+            }
+
+            long requested = 0;
+            Flow.Subscription subscription;
+            Throwable upstreamError = null;
+            boolean complete = false;
+            synchronized (this) {
+                subscription = upstream;
+                // next items are requested once all previously requested ones arrived
+                if (subscription != null && !upstreamDone && outstanding == 0 && current == null
+                        && demand > 0 && batches.size() < parallelism) {
+                    requested = Math.min(demand, batchSize);
+                    demand -= requested;
+                    outstanding = requested;
+                }
+                if (upstreamDone && batches.isEmpty() && current == null && downstream != null) {
+                    complete = true;
+                    upstreamError = upstreamFailure;
+                }
+            }
+            if (complete) {
+                terminate(upstreamError, false);
+                return;
+            }
+            if (requested > 0) {
+                subscription.request(requested);
+            }
+        } while ((missed = wip.addAndGet(-missed)) != 0);
+    }
+
+    private void terminate(Throwable throwable, boolean cancelUpstream) {
+        Flow.Subscriber<? super R> subscriber;
+        Flow.Subscription subscription;
+        synchronized (this) {
+            if (terminated) {
+                return;
+            }
+            terminated = true;
+            batches.clear();
+            current = null;
+            subscriber = downstream;
+            subscription = upstream;
+        }
+        if (cancelUpstream && subscription != null) {
+            subscription.cancel();
+        }
+        if (throwable != null) {
+            subscriber.onError(throwable);
+        } else {
+            subscriber.onComplete();
+        }
+    }
+
+    /**
+     * Subscription of the downstream subscriber.
+     */
+    private final class Downstream implements Flow.Subscription {
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                fail(new IllegalArgumentException("Requested number of items must be positive: " + n));
+                return;
+            }
+            synchronized (CodecProcessor.this) {
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            Flow.Subscription subscription;
+            synchronized (CodecProcessor.this) {
+                if (terminated) {
+                    return;
+                }
+                terminated = true;
+                batches.clear();
+                current = null;
+                subscription = upstream;
+            }
+            if (subscription != null) {
+                subscription.cancel();
+            }
+        }
+    }
+
+    /**
+     * Items delivered by upstream, replaced by results once processed.
+     */
+    private static final class Batch {
+
+        private final Object[] items;
+        private final Object[] results;
+        private int count;
+        private int emitted;
+        private int processedCount;
+        private RuntimeException failure;
+        private volatile boolean processed;
+        private volatile Future<?> flush;
+
+        private Batch(int size) {
+            this.items = new Object[size];
+            this.results = new Object[size];
+        }
+    }
+
+    /**
+     * Lazily started timer of delayed flushes, shared by all processors.
+     */
+    private static final class Scheduler {
+
+        private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "bech32m-processor-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
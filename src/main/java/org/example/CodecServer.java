@@ -0,0 +1,172 @@
+package org.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Long-lived server of Bech32m encoding tool, listening on localhost TCP port.
+ * <p>
+ * Every line sent by client is a separate request and the server responds with exactly one line for each
+ * of them, in request order. Request carries its operation:
+ * <ul>
+ *     <li>{@code e <hrp> <payload>} encodes payload (in input format, may be omitted if empty) with given HRP,</li>
+ *     <li>{@code d <message>} decodes the message,</li>
+ * </ul>
+ * responses are the same as in batch mode (see {@link BatchProcessor}). Lines longer than
+ * {@value #MAX_LINE_LENGTH} characters are not buffered, they are skipped and answered by failure.
+ * Requests may be pipelined - client does not need to wait for response before sending next request.
+ * Responses are flushed whenever no more requests are buffered, so a pipelined burst of requests
+ * is answered by few writes.
+ * <p>
+ * Every connection is handled by its own thread with its own {@link BatchProcessor}.
+ */
+class CodecServer implements Closeable {
+
+    /**
+     * Maximal length of request line, without line terminator
+     */
+    static final int MAX_LINE_LENGTH = 1024;
+
+    private static final int END_OF_STREAM = -1;
+    private static final int TOO_LONG = -2;
+
+    private final ServerSocket serverSocket;
+    private final Supplier<BatchProcessor> processors;
+    private final ExecutorService connections = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "bech32m-server-connection");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Binds the server to loopback address.
+     *
+     * @param port port number, 0 for any free port
+     * @param processors creates processor for each connection, see {@link BatchProcessor#BatchProcessor(App.InOutFormat,
+     *                   App.InOutFormat, DecodeCache)}
+     * @throws IOException if the port can not be bound
+     */
+    CodecServer(int port, Supplier<BatchProcessor> processors) throws IOException {
+        this.serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+        this.processors = processors;
+    }
+
+    /**
+     * @return port the server listens on
+     */
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accepts connections until the server is closed.
+     *
+     * @throws IOException if accepting fails for other reason than closed server
+     */
+    void serve() throws IOException {
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (SocketException e) {
+                if (serverSocket.isClosed()) {
+                    return;
+                }
+                throw e;
+            }
+            connections.execute(() -> handle(socket));
+        }
+    }
+
+    private void handle(Socket socket) {
+        BatchProcessor processor = processors.get();
+        try (Socket connection = socket;
+             InputStream input = new BufferedInputStream(connection.getInputStream());
+             Writer writer = new BufferedWriter(new OutputStreamWriter(
+                     connection.getOutputStream(), StandardCharsets.US_ASCII))) {
+            connection.setTcpNoDelay(true);
+            byte[] line = new byte[MAX_LINE_LENGTH];
+            int length;
+            long lineNumber = 0;
+            while ((length = readLine(input, line)) != END_OF_STREAM) {
+                lineNumber++;
+                writer.write(length == TOO_LONG
+                        ? BatchProcessor.failure(lineNumber, "Request too long!")
+                        : process(processor, new String(line, 0, length, StandardCharsets.US_ASCII), lineNumber));
+                writer.write('\n');
+                if (input.available() == 0) {
+                    writer.flush();
+                }
+            }
+        } catch (IOException e) {
+            // connection was closed by client, nothing to respond to
+        }
+    }
+
+    private static String process(BatchProcessor processor, String request, long lineNumber) {
+        if (request.startsWith("d ")) {
+            return processor.decode(request.substring(2), lineNumber);
+        }
+        if (request.startsWith("e ")) {
+            int space = request.indexOf(' ', 2);
+            return space < 0
+                    ? processor.encode(request.substring(2), "", lineNumber)
+                    : processor.encode(request.substring(2, space), request.substring(space + 1), lineNumber);
+        }
+        return BatchProcessor.failure(lineNumber, "Invalid request!");
+    }
+
+    /**
+     * Reads line terminated by LF (optionally preceded by CR) into given buffer. Line longer than the buffer
+     * is read till its end, but not stored.
+     *
+     * @return length of line, {@link #END_OF_STREAM} if there are no more lines or {@link #TOO_LONG}
+     */
+    private static int readLine(InputStream input, byte[] line) throws IOException {
+        int length = 0;
+        int b;
+        while ((b = input.read()) != '\n') {
+            if (b < 0) {
+                if (length == 0) {
+                    return END_OF_STREAM;
+                }
+                break;
+            }
+            if (length < line.length) {
+                line[length] = (byte) b;
+            }
+            if (length <= line.length) {
+                length++;
+            }
+        }
+        if (length > line.length) {
+            return TOO_LONG;
+        }
+        return length > 0 && line[length - 1] == '\r' ? length - 1 : length;
+    }
+
+    /**
+     * Stops accepting connections and closes the server socket, open connections are left
+     * to finish (their threads do not prevent JVM from exiting).
+     *
+     * @throws IOException if closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        connections.shutdown();
+    }
+}
@@ -0,0 +1,43 @@
+package org.example;
+
+/**
+ * Result status of bech32m encoding/decoding operations.
+ */
+public enum CodecStatus {
+    /**
+     * Operation succeeded
+     */
+    OK,
+    /**
+     * Input is too long or data part is too short to contain checksum
+     */
+    INVALID_LENGTH,
+    /**
+     * Input contains both lowercase and uppercase characters
+     */
+    MIXED_CASE,
+    /**
+     * Input contains character outside of valid range (33-126)
+     */
+    INVALID_CHARACTER,
+    /**
+     * Separator '1' is missing or human-readable part is empty
+     */
+    INVALID_HRP,
+    /**
+     * Data part contains character which is not part of bech32m charset
+     */
+    INVALID_CHARSET,
+    /**
+     * Checksum does not match
+     */
+    INVALID_CHECKSUM,
+    /**
+     * Destination buffer is too small for the payload
+     */
+    BUFFER_TOO_SMALL,
+    /**
+     * Payload to be encoded contains value which is not 5-bit (outside of range 0-31)
+     */
+    INVALID_DATA
+}
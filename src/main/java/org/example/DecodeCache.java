@@ -0,0 +1,192 @@
+package org.example;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of decoded messages, keyed by the message itself.
+ * <p>
+ * Decoded messages are stored as immutable {@link Bech32mData}; invalid messages are cached as well,
+ * as shared invalid results holding only the status. The cache is split into independently locked
+ * segments selected by hash of the message, so concurrent lookups of different messages rarely contend.
+ * <p>
+ * Every segment is a segmented LRU: new entries are placed into probationary part, entries hit again
+ * are promoted to protected part (taking at most {@value #PROTECTED_PERCENT}% of capacity) and the least
+ * recently used probationary entry is evicted once the segment is full. Messages seen only once thus
+ * do not displace the frequently decoded ones.
+ * <p>
+ * Messages longer than {@link Bech32mUtils#MAX_LENGTH} are rejected without being cached.
+ */
+public class DecodeCache {
+
+	/**
+	 * Share of protected part in the capacity of segment, in percent
+	 */
+	public static final int PROTECTED_PERCENT = 80;
+
+	private static final int MAX_SEGMENTS = 16;
+
+	private final Segment[] segments;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * Creates empty cache.
+	 *
+	 * @param capacity maximal number of cached messages
+	 */
+	public DecodeCache(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+		}
+		// every segment holds at least a few entries
+		int count = Math.max(1, Math.min(MAX_SEGMENTS, Integer.highestOneBit(capacity / 4)));
+		segments = new Segment[count];
+		for (int i = 0; i < count; i++) {
+			// capacity is distributed so that segments hold exactly the requested capacity in total
+			segments[i] = new Segment(capacity / count + (i < capacity % count ? 1 : 0));
+		}
+	}
+
+	/**
+	 * Returns decoded message from cache, decoding and caching it if it is not cached yet.
+	 *
+	 * @param bech message
+	 * @return decoded message or invalid result holding status of failure
+	 * @see Decoder#decode(CharSequence, byte[], int, DecodeResult)
+	 */
+	public Bech32mData decode(CharSequence bech) {
+		// too long input can not be valid, it is not cached, so memory is bounded by bytes as well
+		if (bech.length() > Bech32mUtils.MAX_LENGTH) {
+			misses.increment();
+			return Bech32mData.invalid(CodecStatus.INVALID_LENGTH);
+		}
+		String key = bech.toString();
+		int hash = key.hashCode();
+		Segment segment = segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+
+		Bech32mData data = segment.get(key);
+		if (data != null) {
+			hits.increment();
+			return data;
+		}
+		misses.increment();
+
+		// decoded outside of lock, concurrent misses of the same message decode the same result
+		BatchCodec.Scratch scratch = BatchCodec.Scratch.get();
+		Bech32mData decoded = Decoder.decode(key, scratch.symbols(key.length()), scratch.result);
+		return segment.put(key, decoded, evictions);
+	}
+
+	/**
+	 * @return number of lookups answered from the cache
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return number of lookups which had to decode the message
+	 */
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return number of messages evicted because of capacity
+	 */
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	/**
+	 * @return number of cached messages
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			size += segment.size();
+		}
+		return size;
+	}
+
+	/**
+	 * Removes all cached messages, counters are kept.
+	 */
+	public void clear() {
+		for (Segment segment : segments) {
+			segment.clear();
+		}
+	}
+
+	/**
+	 * One independently locked part of the cache.
+	 */
+	private static final class Segment {
+
+		private final int capacity;
+		private final int protectedCapacity;
+
+		// both in access order, eldest entry is the least recently used one
+		private final LinkedHashMap<String, Bech32mData> protectedEntries = new LinkedHashMap<>(16, 0.75f, true);
+		private final LinkedHashMap<String, Bech32mData> probationEntries = new LinkedHashMap<>(16, 0.75f, true);
+
+		private Segment(int capacity) {
+			this.capacity = capacity;
+			this.protectedCapacity = capacity * PROTECTED_PERCENT / 100;
+		}
+
+		synchronized Bech32mData get(String key) {
+			Bech32mData data = protectedEntries.get(key);
+			if (data != null) {
+				return data;
+			}
+			data = probationEntries.remove(key);
+			if (data != null && protectedCapacity > 0) {
+				// second hit, entry is promoted and the least recently used protected one is demoted
+				protectedEntries.put(key, data);
+				if (protectedEntries.size() > protectedCapacity) {
+					Iterator<Map.Entry<String, Bech32mData>> eldest = protectedEntries.entrySet().iterator();
+					Map.Entry<String, Bech32mData> demoted = eldest.next();
+					eldest.remove();
+					probationEntries.put(demoted.getKey(), demoted.getValue());
+				}
+			} else if (data != null) {
+				probationEntries.put(key, data);
+			}
+			return data;
+		}
+
+		synchronized Bech32mData put(String key, Bech32mData data, LongAdder evictions) {
+			Bech32mData cached = protectedEntries.get(key);
+			if (cached == null) {
+				cached = probationEntries.get(key);
+			}
+			if (cached != null) {
+				return cached;
+			}
+			// probationary part may use also capacity not used by protected part
+			probationEntries.put(key, data);
+			if (probationEntries.size() + protectedEntries.size() > capacity) {
+				Iterator<String> eldest = probationEntries.keySet().iterator();
+				eldest.next();
+				eldest.remove();
+				evictions.increment();
+			}
+			return data;
+		}
+
+		synchronized int size() {
+			return protectedEntries.size() + probationEntries.size();
+		}
+
+		synchronized void clear() {
+			protectedEntries.clear();
+			probationEntries.clear();
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package org.example;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+
+/**
+ * {@link Flow.Processor} decoding Bech32m messages, see {@link Decoder#decodeAll(CharSequence[])}.
+ * <p>
+ * Items are requested from upstream only as demanded by the subscriber, in batches, and results keep
+ * the input order even if batches are decoded in parallel. Invalid messages do not terminate the stream,
+ * they result in {@link Bech32mData} holding the status of failure.
+ */
+public final class DecodeProcessor extends CodecProcessor<CharSequence, Bech32mData> {
+
+    /**
+     * Creates processor decoding in the thread delivering the items.
+     */
+    public DecodeProcessor() {
+        this(Runnable::run, DEFAULT_BATCH_SIZE, 1);
+    }
+
+    /**
+     * Creates processor decoding batches of messages by executor.
+     *
+     * @param executor executor decoding the batches
+     * @param batchSize maximal number of messages requested from upstream and decoded at once
+     * @param parallelism maximal number of batches decoded at once
+     * @throws IllegalArgumentException if sizes are not positive
+     */
+    public DecodeProcessor(Executor executor, int batchSize, int parallelism) {
+        this(executor, batchSize, parallelism, DEFAULT_FLUSH_DELAY);
+    }
+
+    /**
+     * Creates processor decoding batches of messages by executor.
+     *
+     * @param executor executor decoding the batches
+     * @param batchSize maximal number of messages requested from upstream and decoded at once
+     * @param parallelism maximal number of batches decoded at once
+     * @param flushDelay maximal time a message waits for the rest of its batch before it is decoded
+     * @throws IllegalArgumentException if sizes are not positive
+     */
+    public DecodeProcessor(Executor executor, int batchSize, int parallelism, Duration flushDelay) {
+        super(executor, batchSize, parallelism, flushDelay);
+    }
+
+    @Override
+    Bech32mData process(CharSequence message, BatchCodec.Scratch scratch) {
+        return Decoder.decode(message, scratch.symbols(message.length()), scratch.result);
+    }
+}
@@ -0,0 +1,94 @@
+package org.example;
+
+/**
+ * Mutable result of allocation-free decoding, see {@link Decoder#decode(CharSequence, byte[], int, DecodeResult)}.
+ * <p>
+ * Instance is meant to be reused for many decode calls (it is not thread-safe). It does not hold
+ * the decoded data, only positions within the input and the destination buffer.
+ */
+public class DecodeResult {
+
+    private CodecStatus status = CodecStatus.OK;
+    private int hrpOffset;
+    private int hrpLength;
+    private int payloadLength;
+    private Bech32Variant variant;
+
+    /**
+     * @return status of the last decode call
+     */
+    public CodecStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * @return true if the last decode call succeeded, false otherwise
+     */
+    public boolean isValid() {
+        return status == CodecStatus.OK;
+    }
+
+    /**
+     * @return index of first character of human-readable part within the decoded input
+     */
+    public int getHrpOffset() {
+        return hrpOffset;
+    }
+
+    /**
+     * @return length of human-readable part
+     */
+    public int getHrpLength() {
+        return hrpLength;
+    }
+
+    /**
+     * @return number of payload symbols (5-bit values) written to the destination buffer
+     */
+    public int getPayloadLength() {
+        return payloadLength;
+    }
+
+    /**
+     * Variant is detected also when the message is rejected because of its variant, i.e. result
+     * with status {@link CodecStatus#INVALID_CHECKSUM} holds {@link Bech32Variant#BECH32}
+     * if only Bech32m messages were accepted.
+     *
+     * @return checksum variant of the message, null if checksum was not verified or is not valid in any variant
+     */
+    public Bech32Variant getVariant() {
+        return variant;
+    }
+
+    /**
+     * Creates human-readable part in lowercase, as used in checksum.
+     *
+     * @param input the same input which was decoded
+     * @return lowercase human-readable part
+     */
+    public String hrp(CharSequence input) {
+        char[] hrp = new char[hrpLength];
+        for (int i = 0; i < hrpLength; i++) {
+            hrp[i] = Bech32mUtils.toLowerCase(input.charAt(hrpOffset + i));
+        }
+        return new String(hrp);
+    }
+
+    DecodeResult set(CodecStatus status, int hrpOffset, int hrpLength, int payloadLength) {
+        this.status = status;
+        this.hrpOffset = hrpOffset;
+        this.hrpLength = hrpLength;
+        this.payloadLength = payloadLength;
+        this.variant = null;
+        return this;
+    }
+
+    DecodeResult variant(Bech32Variant variant) {
+        this.variant = variant;
+        return this;
+    }
+
+    DecodeResult fail(CodecStatus status) {
+        return set(status, 0, 0, 0);
+    }
+}
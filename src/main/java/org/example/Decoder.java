@@ -1,8 +1,10 @@
 package org.example;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Class wrapper for Bech32m decoding functions
@@ -18,63 +20,460 @@ public class Decoder {
     }
 
     /**
-     * Checks the encoding type
+     * Decodes the Bech32m message into caller-supplied buffer, without any allocation.
      *
-     * @param hrp  Human readable part
-     * @param data Payload
-     * @return boolean true if everything was OK, false otherwise
+     * @param bech message
+     * @param dst destination buffer for payload symbols (5-bit values)
+     * @param dstOffset index in dst where the first payload symbol is written
+     * @param result reusable result object, which is filled and returned
+     * @return result holding status, position of human-readable part and payload length
      */
-    private static boolean verifyChecksum(String hrp, byte[] data) {
-        // expand HRP
-        byte[] expandedHRP = Bech32mUtils.hrpExpand(hrp);
+    public static DecodeResult decode(CharSequence bech, byte[] dst, int dstOffset, DecodeResult result) {
+        return decode(bech, 0, bech.length(), dst, dstOffset, null, result);
+    }
 
-        // create large enough array of bytes
-        byte[] values = new byte[expandedHRP.length + data.length];
+    /**
+     * Decodes the Bech32m message located within given range of the input, without any allocation.
+     *
+     * @param input characters containing the message
+     * @param start index of first character of the message
+     * @param end index after the last character of the message
+     * @param dst destination buffer for payload symbols (5-bit values)
+     * @param dstOffset index in dst where the first payload symbol is written
+     * @param result reusable result object, which is filled and returned
+     * @return result holding status, position of human-readable part and payload length
+     */
+    public static DecodeResult decode(CharSequence input, int start, int end, byte[] dst, int dstOffset,
+                                      DecodeResult result) {
+        return decode(input, start, end, dst, dstOffset, null, result);
+    }
+
+    /**
+     * Decodes the Bech32m or (if accepted) Bech32 message located within given range of the input,
+     * without any allocation. Checksum is computed once and compared with constants of both variants,
+     * detected variant is available from {@link DecodeResult#getVariant()}.
+     *
+     * @param input characters containing the message
+     * @param start index of first character of the message
+     * @param end index after the last character of the message
+     * @param dst destination buffer for payload symbols (5-bit values)
+     * @param dstOffset index in dst where the first payload symbol is written
+     * @param result reusable result object, which is filled and returned
+     * @param acceptBech32 true if messages with original Bech32 checksum are accepted as well
+     * @return result holding status, position of human-readable part, payload length and variant
+     */
+    public static DecodeResult decode(CharSequence input, int start, int end, byte[] dst, int dstOffset,
+                                      DecodeResult result, boolean acceptBech32) {
+        return decode(input, start, end, dst, dstOffset, dst.length - dstOffset, null, result, acceptBech32);
+    }
+
+    /**
+     * Decodes the Bech32m message into caller-supplied buffer, without any allocation.
+     * Payload symbols are written at the buffer position, which is advanced on success.
+     *
+     * @param bech message
+     * @param dst destination buffer for payload symbols (5-bit values)
+     * @param result reusable result object, which is filled and returned
+     * @return result holding status, position of human-readable part and payload length
+     */
+    public static DecodeResult decode(CharSequence bech, ByteBuffer dst, DecodeResult result) {
+        if (dst.hasArray()) {
+            decode(bech, 0, bech.length(), dst.array(), dst.arrayOffset() + dst.position(), dst.remaining(), null, result, false);
+        } else {
+            decode(bech, 0, bech.length(), null, dst.position(), dst.remaining(), dst, result, false);
+        }
+        if (result.isValid()) {
+            dst.position(dst.position() + result.getPayloadLength());
+        }
+        return result;
+    }
 
-        // copy both expanded HRP and data (right after it) into newly created array
-        System.arraycopy(expandedHRP, 0, values, 0, expandedHRP.length);
-        System.arraycopy(data, 0, values, expandedHRP.length, data.length);
+    private static DecodeResult decode(CharSequence input, int start, int end, byte[] dst, int dstOffset,
+                                       ByteBuffer buffer, DecodeResult result) {
+        return decode(input, start, end, dst, dstOffset, dst == null ? 0 : dst.length - dstOffset, buffer, result, false);
+    }
 
-        // check if encoding really is bech32m
-        return Bech32mUtils.bech32Polymod(values) == Bech32mUtils.BECH32M_CONST;
+    private static DecodeResult decode(CharSequence input, int start, int end, byte[] dst, int dstOffset,
+                                       int capacity, ByteBuffer buffer, DecodeResult result, boolean acceptBech32) {
+        if (!CodecMetrics.isEnabled()) {
+            return decodeMessage(input, start, end, dst, dstOffset, capacity, buffer, result, acceptBech32);
+        }
+        long startTime = System.nanoTime();
+        decodeMessage(input, start, end, dst, dstOffset, capacity, buffer, result, acceptBech32);
+        CodecMetrics.record(CodecMetrics.Operation.DECODE, result.getStatus(), System.nanoTime() - startTime);
+        return result;
     }
 
     /**
-     * Decodes the Bech32m message
+     * Decoding itself, payload symbols are written either to dst array or (if it is null) to buffer.
+     */
+    private static DecodeResult decodeMessage(CharSequence input, int start, int end, byte[] dst, int dstOffset,
+                                              int capacity, ByteBuffer buffer, DecodeResult result,
+                                              boolean acceptBech32) {
+        int pos = validateStructure(input, start, end, Bech32mUtils.MAX_LENGTH, result);
+        if (pos < 0) {
+            return result;
+        }
+        int payloadLength = end - pos - 1 - Bech32mUtils.CHECKSUM_LEN;
+        if (payloadLength > capacity) {
+            return result.fail(CodecStatus.BUFFER_TOO_SMALL);
+        }
+
+        // checksum state is kept in local variable, so decoding does not allocate
+        int checksum = HrpCache.getDefault().lookup(input, start, pos).getState();
+
+        // data part is validated, mapped and folded into checksum in one pass,
+        // checksum symbols are not written to destination
+        for (int i = 0; i < end - pos - 1; i++) {
+            int value = Bech32mUtils.charsetValue(input.charAt(pos + 1 + i));
+            if (value < 0) {
+                return result.fail(CodecStatus.INVALID_CHARSET);
+            }
+            checksum = Bech32mUtils.polymodStep(checksum, value);
+            if (i < payloadLength) {
+                if (dst != null) {
+                    dst[dstOffset + i] = (byte) value;
+                } else {
+                    buffer.put(dstOffset + i, (byte) value);
+                }
+            }
+        }
+
+        // single residue is compared with both constants
+        Bech32Variant variant = Bech32Variant.ofResidue(checksum);
+        if (variant == null || (variant == Bech32Variant.BECH32 && !acceptBech32)) {
+            return result.fail(CodecStatus.INVALID_CHECKSUM).variant(variant);
+        }
+        return result.set(CodecStatus.OK, start, pos - start, payloadLength).variant(variant);
+    }
+
+    /**
+     * Decodes the message of length up to given limit into immutable result. Other methods accept messages
+     * of at most {@link Bech32mUtils#MAX_LENGTH} characters, this one can decode long messages of other
+     * applications of the format (e.g. Lightning invoices). Human-readable part is limited
+     * to {@link Bech32mUtils#MAX_HRP_LENGTH} characters regardless of the limit. Checksum of long messages
+     * is computed in parallel on common {@link ForkJoinPool}.
      *
      * @param bech message
-     * @return Human readable part, Payload
+     * @param maxLength maximal length of the message
+     * @param acceptBech32 true if messages with original Bech32 checksum are accepted as well
+     * @return decoded message or invalid result holding status of failure
      */
-    static List<Object> bech32mDecode(String bech) {
-        if (!bech.toLowerCase().equals(bech) && !bech.toUpperCase().equals(bech)) {
-            return Collections.emptyList();
+    public static Bech32mData decode(CharSequence bech, int maxLength, boolean acceptBech32) {
+        if (maxLength < 0) {
+            throw new IllegalArgumentException("Invalid maximal length: " + maxLength);
+        }
+        DecodeResult result = new DecodeResult();
+        byte[] symbols;
+        if (!CodecMetrics.isEnabled()) {
+            symbols = decodeLong(bech, maxLength, acceptBech32, result);
+        } else {
+            long startTime = System.nanoTime();
+            symbols = decodeLong(bech, maxLength, acceptBech32, result);
+            CodecMetrics.record(CodecMetrics.Operation.DECODE, result.getStatus(), System.nanoTime() - startTime);
         }
-        for (char x : bech.toCharArray()) {
-            if (x < 33 || x > 126) {
-                return Collections.emptyList();
+        if (!result.isValid()) {
+            return Bech32mData.invalid(result.getStatus());
+        }
+        return Bech32mData.of(result.hrp(bech), symbols, 0, result.getPayloadLength(), result.getVariant());
+    }
+
+    /**
+     * Decoding of message of any length: data part is mapped to symbols first, so the checksum
+     * can be computed over the array (in parallel if it is long).
+     *
+     * @return symbols of data part including checksum, null if the message is invalid
+     */
+    private static byte[] decodeLong(CharSequence bech, int maxLength, boolean acceptBech32, DecodeResult result) {
+        int end = bech.length();
+        int pos = validateStructure(bech, 0, end, maxLength, result);
+        if (pos < 0) {
+            return null;
+        }
+        byte[] symbols = new byte[end - pos - 1];
+        for (int i = 0; i < symbols.length; i++) {
+            int value = Bech32mUtils.charsetValue(bech.charAt(pos + 1 + i));
+            if (value < 0) {
+                result.fail(CodecStatus.INVALID_CHARSET);
+                return null;
             }
+            symbols[i] = (byte) value;
         }
-        bech = bech.toLowerCase();
-        int pos = bech.lastIndexOf('1');
-        if (pos < 1 || pos + 7 > bech.length() || bech.length() > 90) {
-            return Collections.emptyList();
+        int state = Bech32mUtils.bech32Polymod(HrpCache.getDefault().lookup(bech, 0, pos).getState(), symbols, 0,
+                symbols.length);
+
+        Bech32Variant variant = Bech32Variant.ofResidue(state);
+        if (variant == null || (variant == Bech32Variant.BECH32 && !acceptBech32)) {
+            result.fail(CodecStatus.INVALID_CHECKSUM).variant(variant);
+            return null;
         }
-        for (char c : bech.substring(pos + 1).toCharArray()) {
-            if (Bech32mUtils.BECH32M_CHARSET.indexOf(c) == -1) {
-                return Collections.emptyList();
+        result.set(CodecStatus.OK, 0, pos, symbols.length - Bech32mUtils.CHECKSUM_LEN).variant(variant);
+        return symbols;
+    }
+
+    /**
+     * Checks whether the message is valid Bech32m, without decoding the payload and without any allocation.
+     *
+     * @param bech message
+     * @return true if the message is valid Bech32m, false otherwise
+     */
+    public static boolean isValid(CharSequence bech) {
+        BatchCodec.Scratch scratch = BatchCodec.Scratch.get();
+        int pos = validate(bech, 0, bech.length(), scratch.result);
+        return pos >= 0 && hasValidChecksum(bech, pos, scratch.checksum);
+    }
+
+    /**
+     * Checks whether the message is valid Bech32m with given human-readable part, without decoding the payload
+     * and without any allocation. Message with other human-readable part is rejected before it is validated.
+     *
+     * @param bech message
+     * @param expectedHrp expected human-readable part, compared case-insensitively
+     * @return true if the message is valid Bech32m with expected human-readable part, false otherwise
+     */
+    public static boolean isValid(CharSequence bech, String expectedHrp) {
+        int hrpLength = expectedHrp.length();
+        if (bech.length() <= hrpLength || bech.charAt(hrpLength) != '1') {
+            return false;
+        }
+        for (int i = 0; i < hrpLength; i++) {
+            if (Bech32mUtils.toLowerCase(bech.charAt(i)) != Bech32mUtils.toLowerCase(expectedHrp.charAt(i))) {
+                return false;
             }
         }
-        String hrp = bech.substring(0, pos);
-        Byte[] temporaryData = bech.substring(pos + 1).chars().map(Bech32mUtils.BECH32M_CHARSET::indexOf).boxed().map(Integer::byteValue).toArray(Byte[]::new);
-        byte[] data = new byte[temporaryData.length];
-        for (int i = 0; i < temporaryData.length; i++) {
-            data[i] = temporaryData[i];
+        BatchCodec.Scratch scratch = BatchCodec.Scratch.get();
+        // separator is the last '1', it is not at the expected position if data part contains another one
+        return validate(bech, 0, bech.length(), scratch.result) == hrpLength
+                && hasValidChecksum(bech, hrpLength, scratch.checksum);
+    }
+
+    private static boolean hasValidChecksum(CharSequence bech, int pos, Bech32mChecksum checksum) {
+        checksum.reset(HrpCache.getDefault().lookup(bech, 0, pos));
+        for (int i = pos + 1; i < bech.length(); i++) {
+            checksum.update(Bech32mUtils.charsetValue(bech.charAt(i)));
         }
-        boolean spec = verifyChecksum(hrp, data);
+        return checksum.variant() == Bech32Variant.BECH32M;
+    }
 
-        if (!spec) {
+    /**
+     * Validates the message: case, character range, position of separator, length and charset of data part.
+     * Input longer than {@link Bech32mUtils#MAX_LENGTH} is rejected without reading any character.
+     *
+     * @param input characters containing the message
+     * @param start index of first character of the message
+     * @param end index after the last character of the message
+     * @param result result object, status of failure is set to it
+     * @return position of separator, -1 if the message is invalid
+     */
+    static int validate(CharSequence input, int start, int end, DecodeResult result) {
+        return validate(input, start, end, Bech32mUtils.MAX_LENGTH, result);
+    }
+
+    /**
+     * Validates the message, see {@link #validate(CharSequence, int, int, DecodeResult)}.
+     *
+     * @param input characters containing the message
+     * @param start index of first character of the message
+     * @param end index after the last character of the message
+     * @param maxLength maximal length of the message
+     * @param result result object, status of failure is set to it
+     * @return position of separator, -1 if the message is invalid
+     */
+    static int validate(CharSequence input, int start, int end, int maxLength, DecodeResult result) {
+        int pos = validateStructure(input, start, end, maxLength, result);
+        if (pos < 0) {
+            return -1;
+        }
+        for (int i = pos + 1; i < end; i++) {
+            if (Bech32mUtils.charsetValue(input.charAt(i)) < 0) {
+                result.fail(CodecStatus.INVALID_CHARSET);
+                return -1;
+            }
+        }
+        return pos;
+    }
+
+    /**
+     * Validates everything but charset of data part in single pass: case, character range,
+     * position of separator and length. Decoding checks the charset while it maps the data part
+     * to symbols, so every data character is looked up only once.
+     * <p>
+     * Mixed case is reported as soon as it is found. Character out of range ends the pass as well,
+     * only letters of the rest are checked, as mixed case takes precedence over it.
+     *
+     * @param input characters containing the message
+     * @param start index of first character of the message
+     * @param end index after the last character of the message
+     * @param maxLength maximal length of the message
+     * @param result result object, status of failure is set to it
+     * @return position of separator, -1 if the message is invalid
+     */
+    private static int validateStructure(CharSequence input, int start, int end, int maxLength,
+                                         DecodeResult result) {
+        if (end - start > maxLength) {
+            result.fail(CodecStatus.INVALID_LENGTH);
+            return -1;
+        }
+        boolean hasLower = false;
+        boolean hasUpper = false;
+        int pos = -1;
+        for (int i = start; i < end; i++) {
+            char c = input.charAt(i);
+            hasLower |= c >= 'a' && c <= 'z';
+            hasUpper |= c >= 'A' && c <= 'Z';
+            if (hasLower && hasUpper) {
+                result.fail(CodecStatus.MIXED_CASE);
+                return -1;
+            }
+            if (c < 33 || c > 126) {
+                // only mixed case takes precedence, the rest is scanned for letters of the other case
+                result.fail(hasMixedCase(input, i + 1, end, hasLower, hasUpper)
+                        ? CodecStatus.MIXED_CASE : CodecStatus.INVALID_CHARACTER);
+                return -1;
+            }
+            if (c == '1') {
+                pos = i;
+            }
+        }
+
+        CodecStatus status = null;
+        if (pos < start + 1 || pos - start > Bech32mUtils.MAX_HRP_LENGTH) {
+            status = CodecStatus.INVALID_HRP;
+        } else if (pos + 7 > end) {
+            status = CodecStatus.INVALID_LENGTH;
+        }
+        if (status != null) {
+            result.fail(status);
+            return -1;
+        }
+        return pos;
+    }
+
+    private static boolean hasMixedCase(CharSequence input, int start, int end, boolean hasLower, boolean hasUpper) {
+        for (int i = start; i < end; i++) {
+            char c = input.charAt(i);
+            hasLower |= c >= 'a' && c <= 'z';
+            hasUpper |= c >= 'A' && c <= 'Z';
+            if (hasLower && hasUpper) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Decodes Segwit address (BIP173 for witness version 0, BIP350 for versions 1-16).
+     * <p>
+     * Data symbols are folded into checksum and regrouped from 5-bit to 8-bit values
+     * in the same pass, without intermediate array of symbols.
+     *
+     * @param address Segwit address
+     * @return decoded address, null if the address is invalid
+     */
+    public static SegwitAddress decodeSegwit(CharSequence address) {
+        DecodeResult result = new DecodeResult();
+        int end = address.length();
+        int pos = validate(address, 0, end, result);
+        // at least witness version must precede the checksum
+        if (pos < 0 || end - pos - 1 - Bech32mUtils.CHECKSUM_LEN < 1) {
+            return null;
+        }
+        int programSymbols = end - pos - 2 - Bech32mUtils.CHECKSUM_LEN;
+        byte[] program = new byte[programSymbols * 5 / 8];
+
+        Bech32mChecksum checksum = new Bech32mChecksum().reset(HrpCache.getDefault().lookup(address, 0, pos));
+        int witnessVersion = Bech32mUtils.charsetValue(address.charAt(pos + 1));
+        checksum.update(witnessVersion);
+
+        // regroup 5-bit values to 8-bit ones
+        int accumulator = 0;
+        int bits = 0;
+        int written = 0;
+        for (int i = pos + 2; i < end; i++) {
+            int value = Bech32mUtils.charsetValue(address.charAt(i));
+            checksum.update(value);
+            if (i < end - Bech32mUtils.CHECKSUM_LEN) {
+                accumulator = (accumulator << 5) | value;
+                bits += 5;
+                if (bits >= 8) {
+                    bits -= 8;
+                    program[written++] = (byte) (accumulator >>> bits);
+                }
+            }
+        }
+
+        // padding must be shorter than 5 bits and consist of zeros
+        if (bits >= 5 || (accumulator & ((1 << bits) - 1)) != 0) {
+            return null;
+        }
+        if (checksum.variant() != SegwitAddress.variant(witnessVersion)
+                || !SegwitAddress.isValid(witnessVersion, program.length)) {
+            return null;
+        }
+        return new SegwitAddress(result.set(CodecStatus.OK, 0, pos, 0).hrp(address), witnessVersion, program);
+    }
+
+    /**
+     * Decodes all messages, see {@link #decode(CharSequence, byte[], int, DecodeResult)}.
+     * Large batches are decoded in parallel on common {@link ForkJoinPool}.
+     *
+     * @param addresses messages
+     * @return decoded messages in input order, invalid ones hold status of failure
+     */
+    public static Bech32mData[] decodeAll(CharSequence[] addresses) {
+        return decodeAll(addresses, ForkJoinPool.commonPool(), Bech32mUtils.PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Decodes all messages, see {@link #decode(CharSequence, byte[], int, DecodeResult)}.
+     *
+     * @param addresses messages
+     * @param pool pool used for parallel decoding
+     * @param parallelThreshold minimal number of messages to be decoded in parallel
+     * @return decoded messages in input order, invalid ones hold status of failure
+     */
+    public static Bech32mData[] decodeAll(CharSequence[] addresses, ForkJoinPool pool, int parallelThreshold) {
+        Bech32mData[] decoded = new Bech32mData[addresses.length];
+        BatchCodec.run(addresses.length, parallelThreshold, pool, (from, to, scratch) -> {
+            for (int i = from; i < to; i++) {
+                decoded[i] = decode(addresses[i], scratch.symbols(addresses[i].length()), scratch.result);
+            }
+        });
+        return decoded;
+    }
+
+    /**
+     * Decodes the Bech32m message into immutable result.
+     *
+     * @param bech message
+     * @param symbols reusable buffer for payload symbols, at least as long as the message
+     * @param result reusable result object
+     * @return decoded message or invalid result holding status of failure
+     */
+    static Bech32mData decode(CharSequence bech, byte[] symbols, DecodeResult result) {
+        decode(bech, symbols, 0, result);
+        if (!result.isValid()) {
+            return Bech32mData.invalid(result.getStatus());
+        }
+        return Bech32mData.of(result.hrp(bech), symbols, 0, result.getPayloadLength(), result.getVariant());
+    }
+
+    /**
+     * Decodes the Bech32m message
+     *
+     * @param bech message
+     * @return Human readable part, Payload
+     */
+    static List<Object> bech32mDecode(String bech) {
+        byte[] data = new byte[bech.length()];
+        DecodeResult result = decode(bech, data, 0, new DecodeResult());
+        if (!result.isValid()) {
             return Collections.emptyList();
         }
-        return List.of(hrp, new ArrayList<>(List.of(temporaryData).subList(0, data.length - 6)));
+        List<Byte> payload = new ArrayList<>(result.getPayloadLength());
+        for (int i = 0; i < result.getPayloadLength(); i++) {
+            payload.add(data[i]);
+        }
+        return List.of(result.hrp(bech), payload);
     }
-}
\ No newline at end of file
+}
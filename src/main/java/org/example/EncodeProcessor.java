@@ -0,0 +1,72 @@
+package org.example;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+
+/**
+ * {@link Flow.Processor} encoding payloads (5-bit symbols) with fixed human-readable part,
+ * see {@link Encoder#bech32mEncode(String, byte[])}.
+ * <p>
+ * Items are requested from upstream only as demanded by the subscriber, in batches, and results keep
+ * the input order even if batches are encoded in parallel. Invalid payload terminates the stream
+ * by {@link IllegalArgumentException}, after the results of preceding payloads.
+ */
+public final class EncodeProcessor extends CodecProcessor<byte[], String> {
+
+    private final String hrp;
+    private final HrpCache.Prefix prefix;
+
+    /**
+     * Creates processor encoding in the thread delivering the items.
+     *
+     * @param hrp human-readable part
+     * @throws IllegalArgumentException if the human-readable part is invalid
+     */
+    public EncodeProcessor(String hrp) {
+        this(hrp, Runnable::run, DEFAULT_BATCH_SIZE, 1);
+    }
+
+    /**
+     * Creates processor encoding batches of payloads by executor.
+     *
+     * @param hrp human-readable part
+     * @param executor executor encoding the batches
+     * @param batchSize maximal number of payloads requested from upstream and encoded at once
+     * @param parallelism maximal number of batches encoded at once
+     * @throws IllegalArgumentException if the human-readable part is invalid or sizes are not positive
+     */
+    public EncodeProcessor(String hrp, Executor executor, int batchSize, int parallelism) {
+        this(hrp, executor, batchSize, parallelism, DEFAULT_FLUSH_DELAY);
+    }
+
+    /**
+     * Creates processor encoding batches of payloads by executor.
+     *
+     * @param hrp human-readable part
+     * @param executor executor encoding the batches
+     * @param batchSize maximal number of payloads requested from upstream and encoded at once
+     * @param parallelism maximal number of batches encoded at once
+     * @param flushDelay maximal time a payload waits for the rest of its batch before it is encoded
+     * @throws IllegalArgumentException if the human-readable part is invalid or sizes are not positive
+     */
+    public EncodeProcessor(String hrp, Executor executor, int batchSize, int parallelism, Duration flushDelay) {
+        super(executor, batchSize, parallelism, flushDelay);
+        this.prefix = hrp == null ? null : HrpCache.getDefault().lookup(hrp);
+        if (prefix == null || !prefix.isValid()) {
+            throw new IllegalArgumentException("Invalid human-readable part: " + hrp);
+        }
+        this.hrp = hrp.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    String process(byte[] payload, BatchCodec.Scratch scratch) {
+        // HRP is validated and its prefix computed once, as in Encoder#encodeAll
+        String encoded = Encoder.encode(hrp, prefix, payload, 0, payload.length, scratch.checksum);
+        if (encoded == null) {
+            throw new IllegalArgumentException("Invalid payload, encoding failed");
+        }
+        return encoded;
+    }
+}
@@ -1,6 +1,9 @@
 package org.example;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Provides basic functionality for bech32m encoding/decoding.
@@ -14,78 +17,427 @@ public class Encoder {
 	private Encoder() {}
 
 	/**
-	 * Computes the checksum using given human-readable part (HRP) and data
+	 * Encodes given HRP and data into bech32m String.
+	 *
+	 * Firstly, method checks whether HRP has correct parameters (format, length).
+	 * Then, HRP is converted into lower-case and checksum of HRP and data is computed.
+	 * Later, HRP and its separator are combined and last step (data encoding) follows.
+	 * Encoded data and encoded checksum are appended to HRP and its separator.
 	 *
 	 * @param hrp human-readable part
 	 * @param data payload
-	 * @return checksum
+	 * @return String HRP + '1' + bech32m encoded data
 	 */
-	private static byte[] createCheckSum(final String hrp, final byte[] data) {
+	public static String bech32mEncode(String hrp, byte[] data) {
+		if (!CodecMetrics.isEnabled()) {
+			return bech32mEncode(hrp, data, 0, data.length);
+		}
+		long start = System.nanoTime();
+		String encoded = bech32mEncode(hrp, data, 0, data.length);
+		CodecMetrics.record(CodecMetrics.Operation.ENCODE, status(hrp, encoded), System.nanoTime() - start);
+		return encoded;
+	}
 
-		// expand HRP
-		byte[] expandedHRP = Bech32mUtils.hrpExpand(hrp);
+	/**
+	 * Encodes given HRP and data within given range of array into bech32m String.
+	 *
+	 * @param hrp human-readable part
+	 * @param data array containing payload
+	 * @param offset index of first payload value
+	 * @param length number of payload values
+	 * @return String HRP + '1' + bech32m encoded data
+	 */
+	private static String bech32mEncode(String hrp, byte[] data, int offset, int length) {
 
-		// create large enough array of bytes
-		byte[] values = new byte[expandedHRP.length + data.length + Bech32mUtils.CHECKSUM_LEN];
+		// check HRP input (validity is cached together with its checksum prefix)
+		HrpCache.Prefix prefix = HrpCache.getDefault().lookup(hrp);
+		if (!prefix.isValid()) {
+			return null;
+		}
+
+		// convert to lower, data values are checked while being encoded
+		return encodeData(hrp.toLowerCase(Locale.ROOT), prefix, data, offset, length, BatchCodec.Scratch.get().checksum);
+	}
 
-		// copy both expanded HRP and data (right after it) into newly created array
-		System.arraycopy(expandedHRP, 0, values, 0, expandedHRP.length);
-		System.arraycopy(data, 0, values, expandedHRP.length, data.length);
+	/**
+	 * Encodes given HRP and data between position and limit of buffer into bech32m String,
+	 * see {@link #bech32mEncode(String, byte[])}. Position of the buffer is not changed.
+	 *
+	 * @param hrp human-readable part
+	 * @param data payload
+	 * @return String HRP + '1' + bech32m encoded data
+	 */
+	public static String bech32mEncode(String hrp, ByteBuffer data) {
+		if (!CodecMetrics.isEnabled()) {
+			return bech32mEncodeBuffer(hrp, data);
+		}
+		long start = System.nanoTime();
+		String encoded = bech32mEncodeBuffer(hrp, data);
+		CodecMetrics.record(CodecMetrics.Operation.ENCODE, status(hrp, encoded), System.nanoTime() - start);
+		return encoded;
+	}
 
-		int polymod = Bech32mUtils.bech32Polymod(values) ^ Bech32mUtils.BECH32M_CONST;
+	private static String bech32mEncodeBuffer(String hrp, ByteBuffer data) {
+		if (data.hasArray()) {
+			return bech32mEncode(hrp, data.array(), data.arrayOffset() + data.position(), data.remaining());
+		}
 
-		byte[] checksum = new byte[Bech32mUtils.CHECKSUM_LEN];
-		for (short i = 0; i < Bech32mUtils.CHECKSUM_LEN; i++) {
-			checksum[i] = (byte) ((polymod >>> (Bech32mUtils.CHECKSUM_LEN - 1) * ((Bech32mUtils.CHECKSUM_LEN - 1) - i)) & 0x1F);
+		// check HRP input (validity is cached together with its checksum prefix)
+		HrpCache.Prefix prefix = HrpCache.getDefault().lookup(hrp);
+		if (!prefix.isValid()) {
+			return null;
 		}
 
-		return checksum;
+		hrp = hrp.toLowerCase(Locale.ROOT);
+		StringBuilder encoded = new StringBuilder(hrp.length() + 1 + data.remaining() + Bech32mUtils.CHECKSUM_LEN);
+		encoded.append(hrp);
+		encoded.append('1');
+		for (int i = data.position(); i < data.limit(); i++) {
+			char c = Bech32mUtils.charsetChar(data.get(i));
+			if (c == 0) {
+				return null;
+			}
+			encoded.append(c);
+		}
+		appendChecksum(encoded, BatchCodec.Scratch.get().checksum.reset(prefix).update(data).finish());
+		return encoded.toString();
 	}
 
 	/**
-	 * Encodes given HRP and data into bech32m String.
+	 * Encodes given HRP and data into caller-supplied buffer as ASCII characters, without creating String,
+	 * see {@link #bech32mEncode(String, byte[])}. Nothing is written if encoding fails.
 	 *
-	 * Firstly, method checks whether HRP has correct parameters (format, length).
-	 * Then, HRP is converted into lower-case and combine data with checksum.
-	 * Later, HRP and its separator are combined and last step (data encoding) follows.
-	 * After that, encoded data are appended to HRP and its separator.
+	 * @param hrp human-readable part
+	 * @param data payload
+	 * @param dst destination buffer
+	 * @param offset index in dst where the first character is written
+	 * @return number of bytes written, -1 if HRP or data is invalid or dst does not have enough space
+	 */
+	public static int encodeTo(String hrp, byte[] data, byte[] dst, int offset) {
+		if (!CodecMetrics.isEnabled()) {
+			return encodeToArray(hrp, data, dst, offset);
+		}
+		long start = System.nanoTime();
+		int written = encodeToArray(hrp, data, dst, offset);
+		CodecMetrics.record(CodecMetrics.Operation.ENCODE, status(hrp, data, written), System.nanoTime() - start);
+		return written;
+	}
+
+	private static int encodeToArray(String hrp, byte[] data, byte[] dst, int offset) {
+		HrpCache.Prefix prefix = HrpCache.getDefault().lookup(hrp);
+		int length = encodedLength(hrp, prefix, data);
+		if (length < 0 || length > dst.length - offset) {
+			return -1;
+		}
+
+		int pos = offset;
+		for (int i = 0; i < hrp.length(); i++) {
+			dst[pos++] = (byte) Bech32mUtils.toLowerCase(hrp.charAt(i));
+		}
+		dst[pos++] = '1';
+		for (byte value : data) {
+			dst[pos++] = (byte) Bech32mUtils.charsetChar(value);
+		}
+		int packedChecksum = checksum(prefix, data);
+		for (int i = 0; i < Bech32mUtils.CHECKSUM_LEN; i++) {
+			dst[pos++] = (byte) Bech32mUtils.charsetChar(Bech32mChecksum.symbol(packedChecksum, i));
+		}
+		return length;
+	}
+
+	/**
+	 * Encodes given HRP and data into buffer as ASCII characters, see {@link #encodeTo(String, byte[], byte[], int)}.
+	 * Characters are written at the buffer position, which is advanced on success.
 	 *
 	 * @param hrp human-readable part
 	 * @param data payload
-	 * @return String HRP + '1' + bech32m encoded data
+	 * @param dst destination buffer
+	 * @return number of bytes written, -1 if HRP or data is invalid or dst does not have enough space
 	 */
-	public static String bech32mEncode(String hrp, byte[] data) {
+	public static int encodeTo(String hrp, byte[] data, ByteBuffer dst) {
+		if (!CodecMetrics.isEnabled()) {
+			return encodeToBuffer(hrp, data, dst);
+		}
+		long start = System.nanoTime();
+		int written = encodeToBuffer(hrp, data, dst);
+		CodecMetrics.record(CodecMetrics.Operation.ENCODE, status(hrp, data, written), System.nanoTime() - start);
+		return written;
+	}
+
+	private static int encodeToBuffer(String hrp, byte[] data, ByteBuffer dst) {
+		HrpCache.Prefix prefix = HrpCache.getDefault().lookup(hrp);
+		int length = encodedLength(hrp, prefix, data);
+		if (length < 0 || length > dst.remaining()) {
+			return -1;
+		}
+		if (dst.hasArray()) {
+			encodeToArray(hrp, data, dst.array(), dst.arrayOffset() + dst.position());
+		} else {
+			int pos = dst.position();
+			for (int i = 0; i < hrp.length(); i++) {
+				dst.put(pos++, (byte) Bech32mUtils.toLowerCase(hrp.charAt(i)));
+			}
+			dst.put(pos++, (byte) '1');
+			for (byte value : data) {
+				dst.put(pos++, (byte) Bech32mUtils.charsetChar(value));
+			}
+			int packedChecksum = checksum(prefix, data);
+			for (int i = 0; i < Bech32mUtils.CHECKSUM_LEN; i++) {
+				dst.put(pos++, (byte) Bech32mUtils.charsetChar(Bech32mChecksum.symbol(packedChecksum, i)));
+			}
+		}
+		dst.position(dst.position() + length);
+		return length;
+	}
+
+	/**
+	 * Encodes given HRP and data and appends the characters to given destination,
+	 * see {@link #bech32mEncode(String, byte[])}. Nothing is appended if encoding fails.
+	 *
+	 * @param hrp human-readable part
+	 * @param data payload
+	 * @param dst destination, e.g. {@link StringBuilder} or {@link java.io.Writer}
+	 * @return number of characters appended, -1 if HRP or data is invalid
+	 * @throws IOException if appending fails
+	 */
+	public static int encodeTo(String hrp, byte[] data, Appendable dst) throws IOException {
+		if (!CodecMetrics.isEnabled()) {
+			return encodeToAppendable(hrp, data, dst);
+		}
+		long start = System.nanoTime();
+		int written = encodeToAppendable(hrp, data, dst);
+		CodecMetrics.record(CodecMetrics.Operation.ENCODE, status(hrp, data, written), System.nanoTime() - start);
+		return written;
+	}
+
+	private static int encodeToAppendable(String hrp, byte[] data, Appendable dst) throws IOException {
+		HrpCache.Prefix prefix = HrpCache.getDefault().lookup(hrp);
+		int length = encodedLength(hrp, prefix, data);
+		if (length < 0) {
+			return -1;
+		}
 
-		// check HRP input
-		if (Bech32mUtils.isHRPValid(hrp) == Constant.FAILURE) {
+		for (int i = 0; i < hrp.length(); i++) {
+			dst.append(Bech32mUtils.toLowerCase(hrp.charAt(i)));
+		}
+		dst.append('1');
+		for (byte value : data) {
+			dst.append(Bech32mUtils.charsetChar(value));
+		}
+		int packedChecksum = checksum(prefix, data);
+		for (int i = 0; i < Bech32mUtils.CHECKSUM_LEN; i++) {
+			dst.append(Bech32mUtils.charsetChar(Bech32mChecksum.symbol(packedChecksum, i)));
+		}
+		return length;
+	}
+
+	/**
+	 * Computes checksum of payload by checksum of current thread, so encoding to caller-supplied
+	 * destination does not allocate.
+	 *
+	 * @return all checksum symbols packed into single int
+	 */
+	private static int checksum(HrpCache.Prefix prefix, byte[] data) {
+		return BatchCodec.Scratch.get().checksum.reset(prefix).update(data, 0, data.length).finish();
+	}
+
+	/**
+	 * Validates HRP and data before anything is written to destination.
+	 *
+	 * @return number of characters of encoded message, -1 if HRP or data is invalid
+	 */
+	private static int encodedLength(String hrp, HrpCache.Prefix prefix, byte[] data) {
+		if (!prefix.isValid() || Bech32mUtils.isEncodeInputDataValid(data) == Constant.FAILURE) {
+			return -1;
+		}
+		return hrp.length() + 1 + data.length + Bech32mUtils.CHECKSUM_LEN;
+	}
+
+	/**
+	 * Encodes all payloads with the same HRP, see {@link #bech32mEncode(String, byte[])}.
+	 * Large batches are encoded in parallel on common {@link ForkJoinPool}.
+	 *
+	 * @param hrp human-readable part
+	 * @param payloads payloads
+	 * @return encoded payloads in input order, null for invalid payloads; null if HRP is invalid
+	 */
+	public static String[] encodeAll(String hrp, byte[][] payloads) {
+		return encodeAll(hrp, payloads, ForkJoinPool.commonPool(), Bech32mUtils.PARALLEL_THRESHOLD);
+	}
+
+	/**
+	 * Encodes all payloads with the same HRP, see {@link #bech32mEncode(String, byte[])}.
+	 *
+	 * @param hrp human-readable part
+	 * @param payloads payloads
+	 * @param pool pool used for parallel encoding
+	 * @param parallelThreshold minimal number of payloads to be encoded in parallel
+	 * @return encoded payloads in input order, null for invalid payloads; null if HRP is invalid
+	 */
+	public static String[] encodeAll(String hrp, byte[][] payloads, ForkJoinPool pool, int parallelThreshold) {
+		long start = System.nanoTime();
+		HrpCache.Prefix prefix = HrpCache.getDefault().lookup(hrp);
+		if (!prefix.isValid()) {
+			// every payload is counted, as invalid messages of Decoder#decodeAll are
+			if (CodecMetrics.isEnabled()) {
+				long nanos = System.nanoTime() - start;
+				for (int i = 0; i < payloads.length; i++) {
+					CodecMetrics.record(CodecMetrics.Operation.ENCODE, CodecStatus.INVALID_HRP, nanos);
+				}
+			}
 			return null;
 		}
+		String lowerHrp = hrp.toLowerCase(Locale.ROOT);
+
+		String[] encoded = new String[payloads.length];
+		BatchCodec.run(payloads.length, parallelThreshold, pool, (from, to, scratch) -> {
+			for (int i = from; i < to; i++) {
+				encoded[i] = encode(lowerHrp, prefix, payloads[i], 0, payloads[i].length, scratch.checksum);
+			}
+		});
+		return encoded;
+	}
 
-		// check data values
-		if (Bech32mUtils.isEncodeInputDataValid(data) == Constant.FAILURE) {
+	/**
+	 * Encodes Segwit address (BIP173 for witness version 0, BIP350 for versions 1-16).
+	 * <p>
+	 * Witness program is regrouped from 8-bit to 5-bit values and folded into checksum
+	 * in the same pass, without intermediate array of symbols.
+	 *
+	 * @param hrp human-readable part
+	 * @param witnessVersion witness version (0-16)
+	 * @param program witness program (2-40 bytes, 20 or 32 bytes for version 0)
+	 * @return encoded address, null if any of the parameters is invalid
+	 */
+	public static String encodeSegwit(String hrp, int witnessVersion, byte[] program) {
+		HrpCache.Prefix prefix = HrpCache.getDefault().lookup(hrp);
+		if (!prefix.isValid() || !SegwitAddress.isValid(witnessVersion, program.length)) {
+			return null;
+		}
+		int programSymbols = (program.length * 8 + 4) / 5;
+		int length = hrp.length() + 2 + programSymbols + Bech32mUtils.CHECKSUM_LEN;
+		if (length > Bech32mUtils.MAX_LENGTH) {
 			return null;
 		}
 
-		// convert to lower
-		hrp = hrp.toLowerCase(Locale.ROOT);
+		char[] encoded = new char[length];
+		int pos = 0;
+		for (int i = 0; i < hrp.length(); i++) {
+			encoded[pos++] = Bech32mUtils.toLowerCase(hrp.charAt(i));
+		}
+		encoded[pos++] = '1';
 
-		byte[] dataWithChecksum = new byte[data.length + Bech32mUtils.CHECKSUM_LEN];
+		Bech32mChecksum checksum = new Bech32mChecksum().reset(prefix).update(witnessVersion);
+		encoded[pos++] = Bech32mUtils.charsetChar(witnessVersion);
 
-		// Combine (serialize) data and checksum (right behind data)
-		System.arraycopy(data, 0, dataWithChecksum, 0, data.length);
-		System.arraycopy(createCheckSum(hrp, data), 0, dataWithChecksum, data.length, Bech32mUtils.CHECKSUM_LEN);
+		// regroup 8-bit values to 5-bit ones, remaining bits are padded by zeros
+		int accumulator = 0;
+		int bits = 0;
+		for (byte value : program) {
+			accumulator = (accumulator << 8) | (value & 0xFF);
+			bits += 8;
+			while (bits >= 5) {
+				bits -= 5;
+				int symbol = (accumulator >>> bits) & 0x1F;
+				checksum.update(symbol);
+				encoded[pos++] = Bech32mUtils.charsetChar(symbol);
+			}
+		}
+		if (bits > 0) {
+			int symbol = (accumulator << (5 - bits)) & 0x1F;
+			checksum.update(symbol);
+			encoded[pos++] = Bech32mUtils.charsetChar(symbol);
+		}
 
-		StringBuilder encoded = new StringBuilder(hrp.length() + 1 + dataWithChecksum.length);
+		int packedChecksum = checksum.finish(SegwitAddress.variant(witnessVersion).getConstant());
+		for (int i = 0; i < Bech32mUtils.CHECKSUM_LEN; i++) {
+			encoded[pos++] = Bech32mUtils.charsetChar(Bech32mChecksum.symbol(packedChecksum, i));
+		}
+		return new String(encoded);
+	}
+
+	/**
+	 * Encodes already validated HRP and data, data values are validated while being mapped to characters.
+	 * Encoding is recorded by {@link CodecMetrics}, so batch and stream encoding are monitored per payload.
+	 *
+	 * @param hrp lowercase human-readable part
+	 * @param prefix precomputed human-readable part
+	 * @param data array containing payload
+	 * @param offset index of first payload value
+	 * @param length number of payload values
+	 * @param checksum reusable checksum computation
+	 * @return String HRP + '1' + bech32m encoded data, null if any data value is not valid
+	 */
+	static String encode(String hrp, HrpCache.Prefix prefix, byte[] data, int offset, int length,
+						 Bech32mChecksum checksum) {
+		if (!CodecMetrics.isEnabled()) {
+			return encodeData(hrp, prefix, data, offset, length, checksum);
+		}
+		long start = System.nanoTime();
+		String encoded = encodeData(hrp, prefix, data, offset, length, checksum);
+		CodecStatus status = encoded != null ? CodecStatus.OK : CodecStatus.INVALID_DATA;
+		CodecMetrics.record(CodecMetrics.Operation.ENCODE, status, System.nanoTime() - start);
+		return encoded;
+	}
+
+	private static String encodeData(String hrp, HrpCache.Prefix prefix, byte[] data, int offset, int length,
+									 Bech32mChecksum checksum) {
+		StringBuilder encoded = new StringBuilder(hrp.length() + 1 + length + Bech32mUtils.CHECKSUM_LEN);
 
 		// Firstly, append hrp and separator
 		encoded.append(hrp);
 		encoded.append('1');
 
-		// encode data with checksum
-		for (byte value : dataWithChecksum) {
-			encoded.append(Bech32mUtils.BECH32M_CHARSET.charAt(value));
+		// encode data, then checksum (right behind data)
+		for (int i = offset; i < offset + length; i++) {
+			char c = Bech32mUtils.charsetChar(data[i]);
+			if (c == 0) {
+				return null;
+			}
+			encoded.append(c);
 		}
+		appendChecksum(encoded, checksum.reset(prefix).update(data, offset, length).finish());
 
 		return encoded.toString();
 	}
+
+	/**
+	 * Determines result status of finished encoding, for metrics.
+	 *
+	 * @param hrp human-readable part
+	 * @param encoded result of encoding
+	 * @return result status
+	 */
+	private static CodecStatus status(String hrp, String encoded) {
+		if (encoded != null) {
+			return CodecStatus.OK;
+		}
+		// data can be invalid only if HRP is valid, HRP validity is cached
+		return HrpCache.getDefault().lookup(hrp).isValid() ? CodecStatus.INVALID_DATA : CodecStatus.INVALID_HRP;
+	}
+
+	/**
+	 * Determines result status of finished encoding to caller-supplied destination, for metrics.
+	 *
+	 * @param hrp human-readable part
+	 * @param data payload
+	 * @param written number of written characters, -1 if encoding failed
+	 * @return result status
+	 */
+	private static CodecStatus status(String hrp, byte[] data, int written) {
+		if (written >= 0) {
+			return CodecStatus.OK;
+		}
+		if (!HrpCache.getDefault().lookup(hrp).isValid()) {
+			return CodecStatus.INVALID_HRP;
+		}
+		return Bech32mUtils.isEncodeInputDataValid(data) == Constant.FAILURE
+				? CodecStatus.INVALID_DATA : CodecStatus.BUFFER_TOO_SMALL;
+	}
+
+	private static void appendChecksum(StringBuilder encoded, int packedChecksum) {
+		for (int i = 0; i < Bech32mUtils.CHECKSUM_LEN; i++) {
+			encoded.append(Bech32mUtils.charsetChar(Bech32mChecksum.symbol(packedChecksum, i)));
+		}
+	}
 }
@@ -0,0 +1,177 @@
+package org.example;
+
+/**
+ * Locates substituted characters in the data part of a message with invalid checksum.
+ * <p>
+ * Checksum is a BCH code, so the polymod is linear: residue of a message with errors is residue
+ * of the correct message (the checksum constant) XOR syndromes of individual errors. Syndrome
+ * of error value e at distance d from the end of the message is precomputed for all distances and
+ * values, one error is then found by single lookup of the syndrome, two errors by lookup for every
+ * candidate of the first one (31 &times; length lookups). Messages up to {@link Bech32mUtils#MAX_LENGTH}
+ * characters are guaranteed to differ in at least 5 characters, so the location of up to two
+ * errors is unique.
+ */
+public final class ErrorLocator {
+
+	/**
+	 * Maximal number of errors which can be located
+	 */
+	public static final int MAX_ERRORS = 2;
+
+	private static final int MAX_DISTANCE = Bech32mUtils.MAX_LENGTH;
+
+	/**
+	 * Syndromes of single error: [distance from the end][error value]
+	 */
+	private static final int[][] SYNDROMES = new int[MAX_DISTANCE][32];
+
+	private static final int INDEX_BITS = 13;
+
+	/**
+	 * Open-addressing index from syndrome to error, error is stored as (distance &lt;&lt; 5 | value),
+	 * 0 marks empty slot as error value is never 0
+	 */
+	private static final int[] INDEX_KEYS = new int[1 << INDEX_BITS];
+	private static final short[] INDEX_ERRORS = new short[1 << INDEX_BITS];
+
+	static {
+		for (int value = 1; value < 32; value++) {
+			int syndrome = value;
+			for (int distance = 0; distance < MAX_DISTANCE; distance++) {
+				SYNDROMES[distance][value] = syndrome;
+				int slot = slot(syndrome);
+				while (INDEX_ERRORS[slot] != 0) {
+					slot = (slot + 1) & (INDEX_KEYS.length - 1);
+				}
+				INDEX_KEYS[slot] = syndrome;
+				INDEX_ERRORS[slot] = (short) (distance << 5 | value);
+				syndrome = Bech32mUtils.polymodStep(syndrome, 0);
+			}
+		}
+	}
+
+	/**
+	 * private override of default public constructor
+	 */
+	private ErrorLocator() {
+	}
+
+	/**
+	 * Locates substituted characters of Bech32m message, see {@link #locate(CharSequence, Bech32Variant)}.
+	 *
+	 * @param bech message
+	 * @return positions of substituted characters, empty if the message is valid, null if they can not be located
+	 */
+	public static int[] locate(CharSequence bech) {
+		return locate(bech, Bech32Variant.BECH32M);
+	}
+
+	/**
+	 * Locates up to {@link #MAX_ERRORS} substituted characters in data part of the message.
+	 *
+	 * @param bech message
+	 * @param variant checksum variant of the message
+	 * @return positions of substituted characters within the message in ascending order, empty if the message
+	 * is valid, null if the message is malformed (see {@link Decoder#decode(CharSequence, byte[], int, DecodeResult)})
+	 * or errors can not be located
+	 */
+	public static int[] locate(CharSequence bech, Bech32Variant variant) {
+		int[] errors = findErrors(bech, variant);
+		if (errors == null) {
+			return null;
+		}
+		int[] positions = new int[errors.length / 2];
+		for (int i = 0; i < positions.length; i++) {
+			positions[i] = errors[2 * i];
+		}
+		return positions;
+	}
+
+	/**
+	 * Corrects substituted characters of Bech32m message, see {@link #correct(CharSequence, Bech32Variant)}.
+	 *
+	 * @param bech message
+	 * @return corrected message, null if errors can not be located
+	 */
+	public static String correct(CharSequence bech) {
+		return correct(bech, Bech32Variant.BECH32M);
+	}
+
+	/**
+	 * Corrects up to {@link #MAX_ERRORS} substituted characters in data part of the message.
+	 * Corrected characters keep the case of the message. As the location is unique, there is
+	 * only one candidate.
+	 *
+	 * @param bech message
+	 * @param variant checksum variant of the message
+	 * @return corrected message (equal to the input if it is valid), null if errors can not be located
+	 */
+	public static String correct(CharSequence bech, Bech32Variant variant) {
+		int[] errors = findErrors(bech, variant);
+		if (errors == null) {
+			return null;
+		}
+		char[] corrected = bech.toString().toCharArray();
+		for (int i = 0; i < errors.length; i += 2) {
+			int position = errors[i];
+			char c = corrected[position];
+			char fixed = Bech32mUtils.charsetChar(Bech32mUtils.charsetValue(c) ^ errors[i + 1]);
+			corrected[position] = c >= 'A' && c <= 'Z' ? Character.toUpperCase(fixed) : fixed;
+		}
+		return new String(corrected);
+	}
+
+	/**
+	 * @return pairs of (position, error value) in ascending order of positions, null if not found
+	 */
+	private static int[] findErrors(CharSequence bech, Bech32Variant variant) {
+		int end = bech.length();
+		int pos = Decoder.validate(bech, 0, end, new DecodeResult());
+		if (pos < 0) {
+			return null;
+		}
+		Bech32mChecksum checksum = new Bech32mChecksum().reset(HrpCache.getDefault().lookup(bech, 0, pos));
+		for (int i = pos + 1; i < end; i++) {
+			checksum.update(Bech32mUtils.charsetValue(bech.charAt(i)));
+		}
+		int syndrome = checksum.getState() ^ variant.getConstant();
+		if (syndrome == 0) {
+			return new int[0];
+		}
+
+		// data part length, error at distance d from the end is at position end - 1 - d
+		int length = end - pos - 1;
+		int single = lookup(syndrome);
+		if (single != 0 && (single >>> 5) < length) {
+			return new int[]{end - 1 - (single >>> 5), single & 0x1F};
+		}
+		for (int first = 0; first < length; first++) {
+			for (int value = 1; value < 32; value++) {
+				int second = lookup(syndrome ^ SYNDROMES[first][value]);
+				// second error closer to the start, so every pair is found once
+				if (second != 0 && (second >>> 5) > first && (second >>> 5) < length) {
+					return new int[]{end - 1 - (second >>> 5), second & 0x1F, end - 1 - first, value};
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return error with given syndrome as (distance &lt;&lt; 5 | value), 0 if there is none
+	 */
+	private static int lookup(int syndrome) {
+		int slot = slot(syndrome);
+		while (INDEX_ERRORS[slot] != 0) {
+			if (INDEX_KEYS[slot] == syndrome) {
+				return INDEX_ERRORS[slot];
+			}
+			slot = (slot + 1) & (INDEX_KEYS.length - 1);
+		}
+		return 0;
+	}
+
+	private static int slot(int syndrome) {
+		return (syndrome * 0x9E3779B9) >>> (32 - INDEX_BITS);
+	}
+}
@@ -0,0 +1,125 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Table-driven hexadecimal encoding and decoding used for input and output of the CLI.
+ * <p>
+ * Every byte is always represented by exactly two digits, so leading zero bytes are preserved.
+ * Data is processed in chunks of {@link #CHUNK_SIZE} bytes, so conversion of large input takes
+ * linear time and constant memory besides the result.
+ */
+final class HexCodec {
+
+    /**
+     * Number of bytes processed at once
+     */
+    static final int CHUNK_SIZE = 4096;
+
+    private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * Values of ASCII hexadecimal digits (both cases), -1 for other characters
+     */
+    private static final byte[] VALUES = new byte[128];
+
+    static {
+        Arrays.fill(VALUES, (byte) -1);
+        for (int value = 0; value < DIGITS.length; value++) {
+            VALUES[DIGITS[value]] = (byte) value;
+            VALUES[Character.toUpperCase(DIGITS[value])] = (byte) value;
+        }
+    }
+
+    /**
+     * private override of default public constructor
+     */
+    private HexCodec() {
+    }
+
+    /**
+     * Decodes hexadecimal text. Text of odd length is treated as if it had leading zero digit.
+     *
+     * @param text hexadecimal digits
+     * @return decoded bytes
+     * @throws IllegalArgumentException if text contains other characters than hexadecimal digits
+     */
+    static byte[] decode(CharSequence text) {
+        byte[] decoded = new byte[(text.length() + 1) / 2];
+        int digit = text.length() % 2;
+        for (int i = 0; i < text.length(); i++, digit++) {
+            char c = text.charAt(i);
+            int value = c < VALUES.length ? VALUES[c] : -1;
+            if (value < 0) {
+                throw new IllegalArgumentException("Invalid hexadecimal digit: " + c);
+            }
+            decoded[digit >> 1] |= (byte) ((digit & 1) == 0 ? value << 4 : value);
+        }
+        return decoded;
+    }
+
+    /**
+     * Decodes ASCII hexadecimal text between position and limit of the buffer, position is advanced
+     * to the limit. Text of odd length is treated as if it had leading zero digit.
+     *
+     * @param text hexadecimal digits
+     * @return decoded bytes, buffer positioned at 0
+     * @throws IllegalArgumentException if text contains other characters than hexadecimal digits
+     */
+    static ByteBuffer decode(ByteBuffer text) {
+        byte[] decoded = new byte[(text.remaining() + 1) / 2];
+        byte[] chunk = new byte[Math.min(CHUNK_SIZE, text.remaining())];
+        int digit = text.remaining() % 2;
+        while (text.hasRemaining()) {
+            int length = Math.min(chunk.length, text.remaining());
+            text.get(chunk, 0, length);
+            for (int i = 0; i < length; i++, digit++) {
+                int value = chunk[i] >= 0 ? VALUES[chunk[i]] : -1;
+                if (value < 0) {
+                    throw new IllegalArgumentException("Invalid hexadecimal digit: " + (char) (chunk[i] & 0xFF));
+                }
+                decoded[digit >> 1] |= (byte) ((digit & 1) == 0 ? value << 4 : value);
+            }
+        }
+        return ByteBuffer.wrap(decoded);
+    }
+
+    /**
+     * Encodes data to lowercase hexadecimal text.
+     *
+     * @param data data
+     * @return hexadecimal digits, two for every byte
+     */
+    static String encode(byte[] data) {
+        char[] encoded = new char[data.length * 2];
+        for (int i = 0; i < data.length; i++) {
+            encoded[2 * i] = DIGITS[(data[i] >> 4) & 0xF];
+            encoded[2 * i + 1] = DIGITS[data[i] & 0xF];
+        }
+        return new String(encoded);
+    }
+
+    /**
+     * Encodes data between position and limit of the buffer to lowercase hexadecimal text
+     * and appends it to the destination in chunks. Position of the buffer is advanced to the limit.
+     *
+     * @param data data
+     * @param dst destination, should be buffered
+     * @throws IOException if appending fails
+     */
+    static void encode(ByteBuffer data, Appendable dst) throws IOException {
+        byte[] chunk = new byte[Math.min(CHUNK_SIZE, data.remaining())];
+        StringBuilder encoded = new StringBuilder(chunk.length * 2);
+        while (data.hasRemaining()) {
+            int length = Math.min(chunk.length, data.remaining());
+            data.get(chunk, 0, length);
+            encoded.setLength(0);
+            for (int i = 0; i < length; i++) {
+                encoded.append(DIGITS[(chunk[i] >> 4) & 0xF]).append(DIGITS[chunk[i] & 0xF]);
+            }
+            dst.append(encoded);
+        }
+    }
+}
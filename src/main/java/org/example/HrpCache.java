@@ -0,0 +1,254 @@
+package org.example;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded cache of precomputed checksum prefixes for human-readable parts (HRPs).
+ * <p>
+ * For each cached HRP, the cache holds the polymod state after folding the expanded HRP
+ * and the result of {@link Bech32mUtils#isHRPValid(String)}, so encoding and decoding
+ * with a recently seen HRP starts directly from the saved state. HRPs are compared
+ * case-sensitively (validity depends on the case), the saved state is the same for both cases.
+ * <p>
+ * Lookup of cached HRP takes no lock and does not allocate, so concurrent encoders and decoders do not
+ * contend on the shared cache. Recency is tracked approximately by access stamps: every insert advances
+ * the clock and a hit re-stamps its entry only if the entry fell behind by more than a quarter of capacity,
+ * so hot entries are rarely written to. Once the capacity is exceeded, the entry with the oldest stamp
+ * is evicted. Inserts and evictions are guarded by lock; all methods are thread-safe.
+ * <p>
+ * HRPs longer than {@link Bech32mUtils#MAX_HRP_LENGTH} are never valid, their prefixes are computed
+ * on every lookup without being cached.
+ */
+public class HrpCache {
+
+	/**
+	 * System property which overrides capacity of the default cache
+	 */
+	public static final String CAPACITY_PROPERTY = "bech32m.hrpCache.capacity";
+
+	public static final int DEFAULT_CAPACITY = 64;
+
+	private static final HrpCache DEFAULT = new HrpCache(Integer.getInteger(CAPACITY_PROPERTY, DEFAULT_CAPACITY));
+
+	private final int capacity;
+
+	private final int restampDistance;
+
+	// buckets are read without lock, chains are modified under lock only
+	private final AtomicReferenceArray<Prefix> table;
+
+	// advanced by inserts; racy increments by hits are harmless, stamps are only approximate
+	private volatile long clock;
+
+	// guarded by this
+	private int size;
+
+	/**
+	 * Creates empty cache.
+	 *
+	 * @param capacity maximal number of cached HRPs
+	 */
+	public HrpCache(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+		}
+		this.capacity = capacity;
+		this.restampDistance = capacity / 4;
+		this.table = new AtomicReferenceArray<>(Integer.highestOneBit(capacity * 2 - 1) << 1);
+	}
+
+	/**
+	 * @return cache shared by {@link Encoder} and {@link Decoder}
+	 */
+	public static HrpCache getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * Returns the precomputed prefix for given HRP, computing and caching it if it is not cached yet.
+	 *
+	 * @param hrp human-readable part
+	 * @return precomputed prefix
+	 */
+	public Prefix lookup(CharSequence hrp) {
+		return lookup(hrp, 0, hrp.length());
+	}
+
+	/**
+	 * Returns the precomputed prefix for HRP located within given range,
+	 * computing and caching it if it is not cached yet.
+	 *
+	 * @param input characters containing human-readable part
+	 * @param start index of first character of human-readable part
+	 * @param end index after the last character of human-readable part
+	 * @return precomputed prefix
+	 */
+	public Prefix lookup(CharSequence input, int start, int end) {
+		if (end - start > Bech32mUtils.MAX_HRP_LENGTH) {
+			// invalid HRP of any length is not cached, so it cannot take memory or evict valid ones
+			String hrp = input.subSequence(start, end).toString();
+			return new Prefix(hrp, hrp.hashCode(), new Bech32mChecksum().updateHrp(hrp).getState());
+		}
+
+		int hash = 0;
+		for (int i = start; i < end; i++) {
+			hash = 31 * hash + input.charAt(i);
+		}
+
+		Prefix prefix = find(input, start, end, hash);
+		if (prefix != null) {
+			touch(prefix);
+			return prefix;
+		}
+
+		// computed outside of lock, concurrent misses of the same HRP compute the same prefix
+		String hrp = input.subSequence(start, end).toString();
+		Prefix computed = new Prefix(hrp, hash, new Bech32mChecksum().updateHrp(hrp).getState());
+
+		synchronized (this) {
+			prefix = find(input, start, end, hash);
+			if (prefix != null) {
+				touch(prefix);
+				return prefix;
+			}
+			computed.accessed = ++clock;
+			int index = hash & (table.length() - 1);
+			computed.next = table.get(index);
+			// volatile write publishes fully initialized entry to lock-free readers
+			table.set(index, computed);
+			if (++size > capacity) {
+				remove(leastRecentlyUsed());
+			}
+			return computed;
+		}
+	}
+
+	private void touch(Prefix prefix) {
+		long now = clock;
+		if (now - prefix.accessed > restampDistance) {
+			prefix.accessed = ++clock;
+		}
+	}
+
+	/**
+	 * Removes all cached HRPs.
+	 */
+	public synchronized void clear() {
+		for (int i = 0; i < table.length(); i++) {
+			table.set(i, null);
+		}
+		size = 0;
+	}
+
+	/**
+	 * @return number of cached HRPs
+	 */
+	public synchronized int size() {
+		return size;
+	}
+
+	private Prefix find(CharSequence input, int start, int end, int hash) {
+		for (Prefix prefix = table.get(hash & (table.length() - 1)); prefix != null; prefix = prefix.next) {
+			if (prefix.hash == hash && prefix.matches(input, start, end)) {
+				return prefix;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Scans all entries, which is cheap for cache of few dozens of HRPs and happens on miss only.
+	 */
+	private Prefix leastRecentlyUsed() {
+		Prefix oldest = null;
+		for (int i = 0; i < table.length(); i++) {
+			for (Prefix prefix = table.get(i); prefix != null; prefix = prefix.next) {
+				if (oldest == null || prefix.accessed < oldest.accessed) {
+					oldest = prefix;
+				}
+			}
+		}
+		return oldest;
+	}
+
+	/**
+	 * Unlinks the entry from its chain; reader standing at the removed entry still continues to its successor.
+	 */
+	private void remove(Prefix prefix) {
+		int index = prefix.hash & (table.length() - 1);
+		Prefix first = table.get(index);
+		if (first == prefix) {
+			table.set(index, prefix.next);
+		} else {
+			Prefix previous = first;
+			while (previous.next != prefix) {
+				previous = previous.next;
+			}
+			previous.next = prefix.next;
+		}
+		size--;
+	}
+
+	/**
+	 * Precomputed checksum prefix of one human-readable part.
+	 */
+	public static final class Prefix {
+
+		private final String hrp;
+		private final int hash;
+		private final int state;
+
+		// validity is computed lazily, decoding does not need it; 0 if not computed yet,
+		// racy initialization is harmless as every thread computes the same value
+		private int validity;
+
+		// written under cache lock, read without it
+		private volatile Prefix next;
+
+		// access stamp, written racily by hits
+		private volatile long accessed;
+
+		private Prefix(String hrp, int hash, int state) {
+			this.hrp = hrp;
+			this.hash = hash;
+			this.state = state;
+		}
+
+		/**
+		 * @return human-readable part, as it was looked up
+		 */
+		public String getHrp() {
+			return hrp;
+		}
+
+		/**
+		 * @return polymod state after folding expanded human-readable part
+		 */
+		public int getState() {
+			return state;
+		}
+
+		/**
+		 * @return true if human-readable part is valid, false otherwise
+		 * @see Bech32mUtils#isHRPValid(String)
+		 */
+		public boolean isValid() {
+			if (validity == 0) {
+				validity = Bech32mUtils.isHRPValid(hrp);
+			}
+			return validity == Constant.SUCCESS;
+		}
+
+		private boolean matches(CharSequence input, int start, int end) {
+			if (hrp.length() != end - start) {
+				return false;
+			}
+			for (int i = 0; i < hrp.length(); i++) {
+				if (hrp.charAt(i) != input.charAt(start + i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+}
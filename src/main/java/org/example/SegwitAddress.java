@@ -0,0 +1,111 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Immutable Segwit address (BIP173, BIP350): human-readable part, witness version and witness program.
+ * <p>
+ * Version 0 addresses use original Bech32 checksum, higher versions use Bech32m checksum.
+ *
+ * @see Encoder#encodeSegwit(String, int, byte[])
+ * @see Decoder#decodeSegwit(CharSequence)
+ */
+public final class SegwitAddress {
+
+    public static final int MAX_WITNESS_VERSION = 16;
+
+    public static final int MIN_PROGRAM_LEN = 2;
+
+    public static final int MAX_PROGRAM_LEN = 40;
+
+    private final String hrp;
+    private final int witnessVersion;
+    private final byte[] program;
+
+    SegwitAddress(String hrp, int witnessVersion, byte[] program) {
+        this.hrp = hrp;
+        this.witnessVersion = witnessVersion;
+        this.program = program;
+    }
+
+    /**
+     * Checks whether witness version and length of witness program are valid.
+     *
+     * @param witnessVersion witness version
+     * @param programLength length of witness program in bytes
+     * @return true if both are valid, false otherwise
+     */
+    static boolean isValid(int witnessVersion, int programLength) {
+        if (witnessVersion < 0 || witnessVersion > MAX_WITNESS_VERSION) {
+            return false;
+        }
+        if (programLength < MIN_PROGRAM_LEN || programLength > MAX_PROGRAM_LEN) {
+            return false;
+        }
+        return witnessVersion != 0 || programLength == 20 || programLength == 32;
+    }
+
+    /**
+     * @param witnessVersion witness version
+     * @return checksum variant used by addresses of given version
+     */
+    static Bech32Variant variant(int witnessVersion) {
+        return witnessVersion == 0 ? Bech32Variant.BECH32 : Bech32Variant.BECH32M;
+    }
+
+    /**
+     * @return lowercase human-readable part
+     */
+    public String getHrp() {
+        return hrp;
+    }
+
+    /**
+     * @return witness version (0-16)
+     */
+    public int getWitnessVersion() {
+        return witnessVersion;
+    }
+
+    /**
+     * @return copy of witness program
+     */
+    public byte[] getProgram() {
+        return program.clone();
+    }
+
+    /**
+     * Creates output script (scriptPubKey) for the address: version opcode, program length, program.
+     *
+     * @return output script
+     */
+    public byte[] getScriptPubKey() {
+        byte[] script = new byte[program.length + 2];
+        script[0] = (byte) (witnessVersion == 0 ? 0 : 0x50 + witnessVersion);
+        script[1] = (byte) program.length;
+        System.arraycopy(program, 0, script, 2, program.length);
+        return script;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SegwitAddress)) {
+            return false;
+        }
+        SegwitAddress other = (SegwitAddress) o;
+        return witnessVersion == other.witnessVersion && hrp.equals(other.hrp) && Arrays.equals(program, other.program);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * hrp.hashCode() + witnessVersion) + Arrays.hashCode(program);
+    }
+
+    @Override
+    public String toString() {
+        return "SegwitAddress{hrp=" + hrp + ", witnessVersion=" + witnessVersion + ", program=" + Arrays.toString(program) + "}";
+    }
+}
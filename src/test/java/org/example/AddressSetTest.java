@@ -0,0 +1,147 @@
+package org.example;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+public class AddressSetTest {
+
+	private static final String BECH32M = "abcdef1l7aum6echk45nj3s0wdvt2fg8x9yrzpqzd3ryx";
+	private static final String BECH32 = "bc1qw508d6qejxtdg4y5r3zarvary0c5xw7kv8f3t4";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void containsAddedAddresses() {
+		AddressSet set = new AddressSet();
+
+		Assert.assertTrue(set.add(BECH32M));
+		Assert.assertTrue(set.add(BECH32));
+		Assert.assertFalse(set.add(BECH32M.toUpperCase()));
+
+		Assert.assertEquals(2, set.size());
+		Assert.assertTrue(set.contains(BECH32M));
+		Assert.assertTrue(set.contains(new StringBuilder(BECH32.toUpperCase())));
+		Assert.assertFalse(set.contains("a1lqfn3a"));
+		Assert.assertFalse(set.contains("a1lqfn3q"));
+		Assert.assertFalse(set.contains(""));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void invalidAddressIsRejected() {
+		new AddressSet().add("a1lqfn3q");
+	}
+
+	@Test
+	public void largeSetAcrossSlabsWithBloomFilter() {
+		String[] addresses = randomAddresses(20000, 1);
+		String[] absent = randomAddresses(2000, 2);
+		AddressSet set = new AddressSet(100, 10, 64);
+		for (String address : addresses) {
+			Assert.assertTrue(set.add(address));
+		}
+
+		Assert.assertEquals(addresses.length, set.size());
+		for (String address : addresses) {
+			Assert.assertTrue(address, set.contains(address));
+		}
+		for (String address : absent) {
+			Assert.assertFalse(address, set.contains(address));
+		}
+	}
+
+	@Test
+	public void snapshotIsMapped() throws IOException {
+		String[] addresses = randomAddresses(5000, 3);
+		AddressSet set = new AddressSet(5000, 10, 256);
+		for (String address : addresses) {
+			set.add(address);
+		}
+		set.add(BECH32);
+		Path snapshot = folder.newFile().toPath();
+		set.save(snapshot);
+
+		AddressSet opened = AddressSet.open(snapshot);
+
+		Assert.assertTrue(opened.isReadOnly());
+		Assert.assertEquals(set.size(), opened.size());
+		for (String address : addresses) {
+			Assert.assertTrue(address, opened.contains(address));
+		}
+		Assert.assertTrue(opened.contains(BECH32));
+		Assert.assertFalse(opened.contains(BECH32M));
+		try {
+			opened.add(BECH32M);
+			Assert.fail();
+		} catch (UnsupportedOperationException expected) {
+			// snapshot is read-only
+		}
+	}
+
+	@Test
+	public void manyHumanReadableParts() throws IOException {
+		AddressSet set = new AddressSet();
+		String[] addresses = new String[3000];
+		for (int i = 0; i < addresses.length; i++) {
+			addresses[i] = Encoder.bech32mEncode("hrp" + i, new byte[]{(byte) (i % 32)});
+			Assert.assertTrue(set.add(addresses[i]));
+		}
+		Path snapshot = folder.newFile().toPath();
+		set.save(snapshot);
+		AddressSet opened = AddressSet.open(snapshot);
+
+		for (int i = 0; i < addresses.length; i++) {
+			Assert.assertTrue(set.contains(addresses[i].toUpperCase()));
+			Assert.assertTrue(opened.contains(addresses[i]));
+			Assert.assertFalse(opened.contains(Encoder.bech32mEncode("hrp" + i, new byte[]{(byte) (i % 32), 0})));
+		}
+		Assert.assertFalse(set.contains(Encoder.bech32mEncode("hrp" + addresses.length, new byte[]{0})));
+	}
+
+	@Test(expected = IOException.class)
+	public void openRejectsOtherFiles() throws IOException {
+		Path file = folder.newFile().toPath();
+		Files.write(file, new byte[100]);
+		AddressSet.open(file);
+	}
+
+	@Test
+	public void addAllLoadsLines() throws IOException {
+		Path file = folder.newFile().toPath();
+		Files.write(file, Arrays.asList(BECH32M, "", "  " + BECH32 + " ", BECH32M), StandardCharsets.US_ASCII);
+		AddressSet set = new AddressSet();
+
+		Assert.assertEquals(2, set.addAll(file));
+		Assert.assertTrue(set.contains(BECH32));
+
+		Files.write(file, Arrays.asList(BECH32M, "a1lqfn3q"), StandardCharsets.US_ASCII);
+		try {
+			set.addAll(file);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(e.getMessage().startsWith("Line 2: "));
+		}
+	}
+
+	private static String[] randomAddresses(int count, long seed) {
+		Random random = new Random(seed);
+		String[] addresses = new String[count];
+		for (int i = 0; i < count; i++) {
+			byte[] payload = new byte[8 + random.nextInt(33)];
+			for (int j = 0; j < payload.length; j++) {
+				payload[j] = (byte) random.nextInt(32);
+			}
+			addresses[i] = Encoder.bech32mEncode(i % 3 == 0 ? "tb" : "bc", payload);
+		}
+		return addresses;
+	}
+}
@@ -0,0 +1,45 @@
+package org.example;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+
+public class Base64CodecTest {
+
+    @Test
+    public void paddingIsOptional() throws IOException {
+        Assert.assertEquals(ByteBuffer.wrap(new byte[]{0, 1}), Base64Codec.decode(ascii("AAE=")));
+        Assert.assertEquals(ByteBuffer.wrap(new byte[]{0, 1}), Base64Codec.decode(ascii("AAE")));
+        Assert.assertEquals(ByteBuffer.wrap(new byte[0]), Base64Codec.decode(ascii("")));
+    }
+
+    @Test(expected = IOException.class)
+    public void invalidCharacterIsRejected() throws IOException {
+        Base64Codec.decode(ascii("AA#E"));
+    }
+
+    @Test
+    public void largeDataRoundTripsInChunks() throws IOException {
+        byte[] data = new byte[3 * HexCodec.CHUNK_SIZE + 17];
+        new Random(5).nextBytes(data);
+
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        Base64Codec.encode(ByteBuffer.wrap(data), encoded);
+        Assert.assertEquals(Base64.getEncoder().encodeToString(data), encoded.toString(StandardCharsets.US_ASCII));
+
+        ByteBuffer text = ByteBuffer.allocateDirect(encoded.size());
+        text.put(encoded.toByteArray()).flip();
+        Assert.assertEquals(ByteBuffer.wrap(data), Base64Codec.decode(text));
+        Assert.assertFalse(text.hasRemaining());
+    }
+
+    private static ByteBuffer ascii(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII));
+    }
+}
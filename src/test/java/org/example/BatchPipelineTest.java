@@ -0,0 +1,62 @@
+package org.example;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+public class BatchPipelineTest {
+
+    private static final int LINES = 10000;
+
+    private static BufferedReader input() {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < LINES; i++) {
+            input.append("a1lqfn3a").append(System.lineSeparator());
+        }
+        return new BufferedReader(new StringReader(input.toString()));
+    }
+
+    @Test
+    public void writesAllLinesInOrder() throws IOException {
+        StringWriter output = new StringWriter();
+        new BatchPipeline(() -> new BatchProcessor(App.Operation.DECODE, null, App.InOutFormat.BECH32M,
+                App.InOutFormat.HEX) {
+            @Override
+            String process(String line, long lineNumber) {
+                return Long.toString(lineNumber);
+            }
+        }, 4, 16).run(input(), output);
+
+        String[] lines = output.toString().split(System.lineSeparator());
+        Assert.assertEquals(LINES, lines.length);
+        for (int i = 0; i < LINES; i++) {
+            Assert.assertEquals(Integer.toString(i + 1), lines[i]);
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void workerFailureAbortsPipeline() {
+        for (long failingLine : new long[]{1, 5000, LINES}) {
+            BatchPipeline pipeline = new BatchPipeline(() -> new BatchProcessor(App.Operation.DECODE, null,
+                    App.InOutFormat.BECH32M, App.InOutFormat.HEX) {
+                @Override
+                String process(String line, long lineNumber) {
+                    if (lineNumber == failingLine) {
+                        throw new IllegalStateException("failure");
+                    }
+                    return line;
+                }
+            }, 4, 16);
+            try {
+                pipeline.run(input(), new StringWriter());
+                Assert.fail();
+            } catch (IOException e) {
+                Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+        }
+    }
+}
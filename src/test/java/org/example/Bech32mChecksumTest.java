@@ -0,0 +1,49 @@
+package org.example;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class Bech32mChecksumTest {
+
+	private static byte[] symbols(String dataPart) {
+		byte[] symbols = new byte[dataPart.length()];
+		for (int i = 0; i < symbols.length; i++) {
+			symbols[i] = (byte) Bech32mUtils.BECH32M_CHARSET.indexOf(dataPart.charAt(i));
+		}
+		return symbols;
+	}
+
+	@Test
+	public void finishCreatesChecksumOfTestVector() {
+		byte[] data = symbols("checkupstagehandshakeupstreamerranterredcaperred");
+		byte[] checksum = new byte[Bech32mUtils.CHECKSUM_LEN + 1];
+
+		new Bech32mChecksum().updateHrp("split").update(data, 0, data.length).finish(checksum, 1);
+
+		Assert.assertArrayEquals(new byte[]{0, 31, 24, 21, 21, 20, 12}, checksum);
+	}
+
+	@Test
+	public void finishedChecksumIsVerified() {
+		Bech32mChecksum checksum = new Bech32mChecksum().updateHrp("abcdef");
+		for (int symbol = 31; symbol >= 0; symbol--) {
+			checksum.update(symbol);
+		}
+		int packed = checksum.finish();
+		for (int i = 0; i < Bech32mUtils.CHECKSUM_LEN; i++) {
+			Assert.assertFalse(checksum.verify());
+			checksum.update(Bech32mChecksum.symbol(packed, i));
+		}
+		Assert.assertTrue(checksum.verify());
+	}
+
+	@Test
+	public void uppercaseHrpAndRangeGiveSameChecksum() {
+		byte[] data = symbols("lqfn3a");
+
+		Assert.assertTrue(new Bech32mChecksum().updateHrp("A").update(data, 0, data.length).verify());
+		Assert.assertTrue(new Bech32mChecksum().updateHrp("xa1y", 1, 2).update(data, 0, data.length).verify());
+		Assert.assertFalse(new Bech32mChecksum().updateHrp("b").update(data, 0, data.length).verify());
+		Assert.assertTrue(new Bech32mChecksum().updateHrp("b").reset().updateHrp("a").update(data, 0, data.length).verify());
+	}
+}
@@ -0,0 +1,131 @@
+package org.example;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+public class Bech32mUtilsTest {
+
+	private static final String[] TEST_VECTORS = {
+			"a1lqfn3a",
+			"an83characterlonghumanreadablepartthatcontainsthetheexcludedcharactersbioandnumber11sg7hg6",
+			"abcdef1l7aum6echk45nj3s0wdvt2fg8x9yrzpqzd3ryx",
+			"11llllllllllllllllllllllllllllllllllllllllllllllllllllllllllllllllllllllllllllllllllludsr8",
+			"split1checkupstagehandshakeupstreamerranterredcaperredlc445v",
+			"?1v759aa"
+	};
+
+	/**
+	 * Original bit-by-bit checksum computation, used as a reference for table driven one.
+	 */
+	private static int referencePolymod(byte[] values) {
+		int[] generator = {0x3b6a57b2, 0x26508e6d, 0x1ea119fa, 0x3d4233dd, 0x2a1462b3};
+
+		int checksum = 1;
+		int top;
+
+		for (byte value : values) {
+			top = (checksum >>> 25) & 0xFF;
+			checksum = ((checksum & 0x1FFFFFF) << 5) ^ (value & 0xFF);
+
+			for (int j = 0; j < 5; j++) {
+				checksum ^= ((top >> j) & 1) == 1 ? generator[j] : 0;
+			}
+		}
+
+		return checksum;
+	}
+
+	private static byte[] checksumValues(String bech) {
+		int pos = bech.lastIndexOf('1');
+		byte[] expandedHRP = Bech32mUtils.hrpExpand(bech.substring(0, pos));
+		byte[] values = new byte[expandedHRP.length + bech.length() - pos - 1];
+		System.arraycopy(expandedHRP, 0, values, 0, expandedHRP.length);
+		for (int i = pos + 1; i < bech.length(); i++) {
+			values[expandedHRP.length + i - pos - 1] = (byte) Bech32mUtils.BECH32M_CHARSET.indexOf(bech.charAt(i));
+		}
+		return values;
+	}
+
+	@Test
+	public void polymodOfTestVectorsMatchesConstant() {
+		for (String vector : TEST_VECTORS) {
+			byte[] values = checksumValues(vector);
+			Assert.assertEquals(vector, Bech32mUtils.BECH32M_CONST, Bech32mUtils.bech32Polymod(values));
+			Assert.assertEquals(vector, referencePolymod(values), Bech32mUtils.bech32Polymod(values));
+		}
+	}
+
+	@Test
+	public void polymodMatchesReferenceOnRandomValues() {
+		Random random = new Random(42);
+		for (int length = 0; length < 200; length++) {
+			byte[] values = new byte[length];
+			random.nextBytes(values);
+			Assert.assertEquals(referencePolymod(values), Bech32mUtils.bech32Polymod(values));
+
+			for (int i = 0; i < length; i++) {
+				values[i] &= 0x1F;
+			}
+			Assert.assertEquals(referencePolymod(values), Bech32mUtils.bech32Polymod(values));
+		}
+	}
+
+	@Test
+	public void polymodCanBeContinuedFromAnyState() {
+		byte[] values = checksumValues(TEST_VECTORS[4]);
+		for (int split = 0; split <= values.length; split++) {
+			int checksum = Bech32mUtils.bech32Polymod(1, values, 0, split);
+			checksum = Bech32mUtils.bech32Polymod(checksum, values, split, values.length - split);
+			Assert.assertEquals(Bech32mUtils.BECH32M_CONST, checksum);
+		}
+
+		int checksum = 1;
+		for (byte value : values) {
+			checksum = Bech32mUtils.polymodStep(checksum, value);
+		}
+		Assert.assertEquals(Bech32mUtils.BECH32M_CONST, checksum);
+	}
+
+	@Test
+	public void charsetTablesMatchCharset() {
+		for (char c = 0; c < 300; c++) {
+			int expected = Bech32mUtils.BECH32M_CHARSET.indexOf(Character.toLowerCase(c));
+			Assert.assertEquals(c < 128 ? expected : -1, Bech32mUtils.charsetValue(c));
+		}
+		for (int value = -128; value < 128; value++) {
+			char expected = value >= 0 && value < 32 ? Bech32mUtils.BECH32M_CHARSET.charAt(value) : 0;
+			Assert.assertEquals(expected, Bech32mUtils.charsetChar((byte) value));
+		}
+	}
+
+	@Test
+	public void hrpValidationMatchesReference() {
+		String[] hrps = {"", "a", "A", "aB", "a b", "?", "1", "a\u00e9", "bc1", "BC1", "Tb",
+				new String(new char[83]).replace('\0', 'x'), new String(new char[84]).replace('\0', 'x')};
+		for (String hrp : hrps) {
+			Assert.assertEquals(hrp, referenceHrpValidity(hrp), Bech32mUtils.isHRPValid(hrp));
+		}
+
+		Random random = new Random(3);
+		for (int i = 0; i < 10000; i++) {
+			char[] chars = new char[random.nextInt(6)];
+			for (int j = 0; j < chars.length; j++) {
+				chars[j] = (char) (28 + random.nextInt(102));
+			}
+			String hrp = new String(chars);
+			Assert.assertEquals(hrp, referenceHrpValidity(hrp), Bech32mUtils.isHRPValid(hrp));
+		}
+	}
+
+	/**
+	 * Original regex-based validation.
+	 */
+	private static int referenceHrpValidity(String hrp) {
+		boolean mixed = !hrp.equals(hrp.toLowerCase(Locale.ROOT)) && !hrp.equals(hrp.toUpperCase(Locale.ROOT));
+		boolean inRange = hrp.chars().allMatch(c -> c >= 33 && c <= 126);
+		return !mixed && inRange && hrp.length() >= 1 && hrp.length() <= 83 ? Constant.SUCCESS : Constant.FAILURE;
+	}
+}
@@ -0,0 +1,44 @@
+package org.example;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class ChunkedPolymodTest {
+
+	@Test
+	public void shiftEqualsZeroSteps() {
+		Random random = new Random(1);
+		for (int steps : new int[]{0, 1, 2, 5, 31, 64, 1000, 4097}) {
+			int state = random.nextInt(1 << 30);
+			int expected = state;
+			for (int i = 0; i < steps; i++) {
+				expected = Bech32mUtils.polymodStep(expected, 0);
+			}
+			Assert.assertEquals("steps " + steps, expected, ChunkedPolymod.shift(state, steps));
+		}
+	}
+
+	@Test
+	public void parallelPolymodEqualsSequential() {
+		Random random = new Random(2);
+		byte[] values = new byte[100_003];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = (byte) random.nextInt(32);
+		}
+		int expected = 1;
+		for (byte value : values) {
+			expected = Bech32mUtils.polymodStep(expected, value);
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			Assert.assertEquals(expected, ChunkedPolymod.polymod(1, values, 0, values.length, pool));
+		} finally {
+			pool.shutdown();
+		}
+		Assert.assertEquals(expected, Bech32mUtils.bech32Polymod(values));
+	}
+}
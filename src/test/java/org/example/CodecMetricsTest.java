@@ -0,0 +1,114 @@
+package org.example;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CodecMetricsTest {
+
+	@Before
+	public void setUp() {
+		CodecMetrics.reset();
+		CodecMetrics.setEnabled(true);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		CodecMetrics.setEnabled(false);
+		CodecMetrics.reset();
+		CodecMetrics.unregisterMBean();
+	}
+
+	@Test
+	public void countsCallsByStatus() {
+		Encoder.bech32mEncode("a", new byte[0]);
+		Encoder.bech32mEncode("a", ByteBuffer.allocateDirect(1).put((byte) 31).flip());
+		Encoder.bech32mEncode("A b", new byte[0]);
+		Encoder.bech32mEncode("a", new byte[]{32});
+		Decoder.bech32mDecode("a1lqfn3a");
+		Decoder.bech32mDecode("a1lqfn3q");
+		Decoder.bech32mDecode("A1lqfn3a");
+
+		Assert.assertEquals(4, CodecMetrics.getCalls(CodecMetrics.Operation.ENCODE));
+		Assert.assertEquals(2, CodecMetrics.getFailures(CodecMetrics.Operation.ENCODE));
+		Assert.assertEquals(1, CodecMetrics.getCount(CodecMetrics.Operation.ENCODE, CodecStatus.INVALID_HRP));
+		Assert.assertEquals(1, CodecMetrics.getCount(CodecMetrics.Operation.ENCODE, CodecStatus.INVALID_DATA));
+		Assert.assertEquals(3, CodecMetrics.getCalls(CodecMetrics.Operation.DECODE));
+		Assert.assertEquals(1, CodecMetrics.getCount(CodecMetrics.Operation.DECODE, CodecStatus.INVALID_CHECKSUM));
+		Assert.assertEquals(1, CodecMetrics.getCount(CodecMetrics.Operation.DECODE, CodecStatus.MIXED_CASE));
+
+		long histogramTotal = 0;
+		for (long count : CodecMetrics.getLatencyHistogram(CodecMetrics.Operation.DECODE)) {
+			histogramTotal += count;
+		}
+		Assert.assertEquals(3, histogramTotal);
+	}
+
+	@Test
+	public void batchAndZeroCopyEncodingIsCounted() throws Exception {
+		Encoder.encodeAll("a", new byte[][]{{0}, {32}});
+		Encoder.encodeAll("A b", new byte[][]{{0}, {1}});
+		Encoder.encodeTo("a", new byte[]{1}, new byte[64], 0);
+		Encoder.encodeTo("a", new byte[]{1}, new byte[2], 0);
+		Encoder.encodeTo("a", new byte[]{1}, ByteBuffer.allocateDirect(64));
+		Encoder.encodeTo("a", new byte[]{1}, new StringBuilder());
+
+		Assert.assertEquals(8, CodecMetrics.getCalls(CodecMetrics.Operation.ENCODE));
+		Assert.assertEquals(1, CodecMetrics.getCount(CodecMetrics.Operation.ENCODE, CodecStatus.INVALID_DATA));
+		Assert.assertEquals(2, CodecMetrics.getCount(CodecMetrics.Operation.ENCODE, CodecStatus.INVALID_HRP));
+		Assert.assertEquals(1, CodecMetrics.getCount(CodecMetrics.Operation.ENCODE, CodecStatus.BUFFER_TOO_SMALL));
+		Assert.assertEquals(4, CodecMetrics.getCount(CodecMetrics.Operation.ENCODE, CodecStatus.OK));
+	}
+
+	@Test
+	public void disabledMetricsRecordNothing() {
+		CodecMetrics.setEnabled(false);
+		Encoder.bech32mEncode("a", new byte[0]);
+		Decoder.bech32mDecode("a1lqfn3a");
+
+		Assert.assertEquals(0, CodecMetrics.getCalls(CodecMetrics.Operation.ENCODE));
+		Assert.assertEquals(0, CodecMetrics.getCalls(CodecMetrics.Operation.DECODE));
+	}
+
+	@Test
+	public void listenerIsNotified() {
+		List<CodecStatus> statuses = new ArrayList<>();
+		CodecListener listener = (operation, status, nanos) -> statuses.add(status);
+		CodecMetrics.addListener(listener);
+		try {
+			Decoder.bech32mDecode("a1lqfn3a");
+			Decoder.bech32mDecode("a1lqfn3b");
+		} finally {
+			CodecMetrics.removeListener(listener);
+		}
+		Decoder.bech32mDecode("a1lqfn3a");
+
+		List<CodecStatus> expected = new ArrayList<>();
+		expected.add(CodecStatus.OK);
+		expected.add(CodecStatus.INVALID_CHARSET);
+		Assert.assertEquals(expected, statuses);
+	}
+
+	@Test
+	public void metricsAreExposedThroughJmx() throws Exception {
+		CodecMetrics.registerMBean();
+		Decoder.bech32mDecode("a1lqfn3q");
+
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName(CodecMetrics.OBJECT_NAME);
+		Assert.assertEquals(1L, server.getAttribute(name, "DecodeCalls"));
+		Assert.assertEquals(1L, server.getAttribute(name, "DecodeFailures"));
+		Assert.assertEquals(true, server.getAttribute(name, "Enabled"));
+		Assert.assertEquals(Long.valueOf(1),
+				CodecMetrics.getFailureCounts(CodecMetrics.Operation.DECODE).get(CodecStatus.INVALID_CHECKSUM.name()));
+		Assert.assertNotNull(server.getAttribute(name, "DecodeFailureCounts"));
+	}
+}
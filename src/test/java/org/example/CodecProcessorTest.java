@@ -0,0 +1,225 @@
+package org.example;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+public class CodecProcessorTest {
+
+    @Test
+    public void decodesInOrderWithExecutor() throws InterruptedException {
+        String[] messages = new String[1000];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = i % 7 == 0 ? "a1lqfn3q" : Encoder.bech32mEncode("bc", new byte[]{(byte) (i % 32), (byte) (i / 32)});
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        SubmissionPublisher<CharSequence> publisher = new SubmissionPublisher<>();
+        try {
+            DecodeProcessor processor = new DecodeProcessor(executor, 16, 4);
+            Collector<Bech32mData> collector = new Collector<>(Long.MAX_VALUE);
+            publisher.subscribe(processor);
+            processor.subscribe(collector);
+            for (String message : messages) {
+                publisher.submit(message);
+            }
+            publisher.close();
+
+            Assert.assertTrue(collector.done.await(10, TimeUnit.SECONDS));
+            Assert.assertNull(collector.failure);
+            Assert.assertEquals(List.of(Decoder.decodeAll(messages)), collector.items);
+        } finally {
+            publisher.close();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void requestsOnlyDemandedItems() {
+        DecodeProcessor processor = new DecodeProcessor(Runnable::run, 2, 1);
+        Upstream upstream = new Upstream();
+        Collector<Bech32mData> collector = new Collector<>(5);
+        processor.onSubscribe(upstream);
+        processor.subscribe(collector);
+
+        while (upstream.delivered < upstream.requested) {
+            upstream.delivered++;
+            processor.onNext("a1lqfn3a");
+        }
+
+        Assert.assertEquals(5, upstream.requested);
+        Assert.assertEquals(5, collector.items.size());
+
+        collector.subscription.request(1);
+        Assert.assertEquals(6, upstream.requested);
+        processor.onNext("a1lqfn3a");
+        processor.onComplete();
+
+        Assert.assertEquals(6, collector.items.size());
+        Assert.assertEquals(0, collector.done.getCount());
+        Assert.assertNull(collector.failure);
+    }
+
+    @Test
+    public void encodeFailureTerminatesStream() {
+        EncodeProcessor processor = new EncodeProcessor("bc", Runnable::run, 4, 1);
+        Upstream upstream = new Upstream();
+        Collector<String> collector = new Collector<>(Long.MAX_VALUE);
+        processor.onSubscribe(upstream);
+        processor.subscribe(collector);
+
+        processor.onNext(new byte[]{1, 2});
+        processor.onNext(new byte[]{3});
+        processor.onNext(new byte[]{32});
+        processor.onNext(new byte[]{4});
+
+        Assert.assertEquals(List.of(Encoder.bech32mEncode("bc", new byte[]{1, 2}), Encoder.bech32mEncode("bc", new byte[]{3})),
+                collector.items);
+        Assert.assertTrue(collector.failure instanceof IllegalArgumentException);
+        Assert.assertTrue(upstream.cancelled);
+    }
+
+    @Test(timeout = 10000)
+    public void partialBatchIsFlushedAfterDelay() throws InterruptedException {
+        DecodeProcessor processor = new DecodeProcessor(Runnable::run, 256, 1, Duration.ofMillis(5));
+        Upstream upstream = new Upstream();
+        Collector<Bech32mData> collector = new Collector<>(Long.MAX_VALUE);
+        processor.onSubscribe(upstream);
+        processor.subscribe(collector);
+        Assert.assertEquals(256, upstream.requested);
+
+        processor.onNext("a1lqfn3a");
+        while (collector.items.isEmpty()) {
+            Thread.sleep(1);
+        }
+        processor.onNext("a1lqfn3a");
+        while (collector.items.size() < 2) {
+            Thread.sleep(1);
+        }
+        // the rest of requested items is collected into following batches
+        Assert.assertEquals(256, upstream.requested);
+        processor.onComplete();
+        Assert.assertTrue(collector.done.await(1, TimeUnit.SECONDS));
+        Assert.assertNull(collector.failure);
+    }
+
+    @Test
+    public void nullArgumentsAreRejected() {
+        DecodeProcessor processor = new DecodeProcessor();
+        Upstream upstream = new Upstream();
+        Collector<Bech32mData> collector = new Collector<>(Long.MAX_VALUE);
+
+        assertNullPointer(() -> processor.onSubscribe(null));
+        processor.onSubscribe(upstream);
+        processor.subscribe(collector);
+        assertNullPointer(() -> processor.onNext(null));
+        assertNullPointer(() -> processor.onError(null));
+
+        // rejected calls do not terminate the stream
+        Assert.assertNull(collector.failure);
+        Assert.assertEquals(1, collector.done.getCount());
+        Assert.assertFalse(upstream.cancelled);
+    }
+
+    @Test
+    public void unrequestedItemFailsStream() {
+        DecodeProcessor processor = new DecodeProcessor(Runnable::run, 4, 1, Duration.ZERO);
+        Upstream upstream = new Upstream();
+        Collector<Bech32mData> collector = new Collector<>(1);
+        processor.onSubscribe(upstream);
+        processor.subscribe(collector);
+
+        processor.onNext("a1lqfn3a");
+        processor.onNext("a1lqfn3a");
+
+        Assert.assertEquals(1, collector.items.size());
+        Assert.assertTrue(collector.failure instanceof IllegalStateException);
+        Assert.assertTrue(upstream.cancelled);
+    }
+
+    @Test
+    public void secondSubscriberIsRejected() {
+        EncodeProcessor processor = new EncodeProcessor("bc");
+        processor.subscribe(new Collector<>(1));
+        Collector<String> second = new Collector<>(1);
+
+        processor.subscribe(second);
+
+        Assert.assertTrue(second.failure instanceof IllegalStateException);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidHrpIsRejected() {
+        new EncodeProcessor("");
+    }
+
+    private static void assertNullPointer(Runnable call) {
+        try {
+            call.run();
+            Assert.fail("NullPointerException expected");
+        } catch (NullPointerException expected) {
+            // rule 2.13: null argument is rejected by throwing
+        }
+    }
+
+    private static final class Upstream implements Flow.Subscription {
+
+        private long requested;
+        private long delivered;
+        private boolean cancelled;
+
+        @Override
+        public void request(long n) {
+            requested += n;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    private static final class Collector<T> implements Flow.Subscriber<T> {
+
+        private final long initialRequest;
+        private final List<T> items = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile Throwable failure;
+        private Flow.Subscription subscription;
+
+        private Collector(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(initialRequest);
+        }
+
+        @Override
+        public void onNext(T item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            failure = throwable;
+            done.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            done.countDown();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.example;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+public class CodecServerTest {
+
+    private CodecServer server;
+    private Thread serverThread;
+
+    @Before
+    public void startServer() throws Exception {
+        server = new CodecServer(0,
+                () -> new BatchProcessor(App.InOutFormat.HEX, App.InOutFormat.HEX, null));
+        serverThread = new Thread(() -> {
+            try {
+                server.serve();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        serverThread.start();
+    }
+
+    @After
+    public void stopServer() throws Exception {
+        server.close();
+        serverThread.join(5000);
+        Assert.assertFalse(serverThread.isAlive());
+    }
+
+    @Test
+    public void pipelinedRequestsAreAnsweredInOrder() throws Exception {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+             BufferedReader reader = new BufferedReader(new InputStreamReader(
+                     socket.getInputStream(), StandardCharsets.US_ASCII))) {
+            OutputStream output = socket.getOutputStream();
+            StringBuilder requests = new StringBuilder();
+            for (int i = 0; i < 100; i++) {
+                requests.append(i % 2 == 0 ? "d a1lqfn3a" : "d a1lqfn3q").append('\n');
+            }
+            output.write(requests.toString().getBytes(StandardCharsets.US_ASCII));
+            output.flush();
+
+            for (int i = 0; i < 100; i++) {
+                Assert.assertEquals(i % 2 == 0 ? "a" : "Line " + (i + 1) + ": Decoding failed!", reader.readLine());
+            }
+        }
+    }
+
+    @Test
+    public void connectionsAreIndependent() throws Exception {
+        try (Socket first = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+             Socket second = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            BufferedReader firstReader = new BufferedReader(new InputStreamReader(
+                    first.getInputStream(), StandardCharsets.US_ASCII));
+            BufferedReader secondReader = new BufferedReader(new InputStreamReader(
+                    second.getInputStream(), StandardCharsets.US_ASCII));
+
+            second.getOutputStream().write("d x\n".getBytes(StandardCharsets.US_ASCII));
+            first.getOutputStream().write("d a1lqfn3a\n".getBytes(StandardCharsets.US_ASCII));
+
+            Assert.assertEquals("Line 1: Decoding failed!", secondReader.readLine());
+            Assert.assertEquals("a", firstReader.readLine());
+        }
+    }
+
+    @Test
+    public void requestsCarryOperationAndHrp() throws Exception {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+             BufferedReader reader = new BufferedReader(new InputStreamReader(
+                     socket.getInputStream(), StandardCharsets.US_ASCII))) {
+            StringBuilder requests = new StringBuilder()
+                    .append("e bc 0102\r\n")
+                    .append("e tb\n")
+                    .append("d ").append(Encoder.bech32mEncode("bc", new byte[]{1, 2})).append('\n')
+                    .append("e b c 01\n")
+                    .append("x a1lqfn3a\n");
+            for (int i = 0; i <= CodecServer.MAX_LINE_LENGTH; i++) {
+                requests.append('d');
+            }
+            requests.append("\nd a1lqfn3a\n");
+            socket.getOutputStream().write(requests.toString().getBytes(StandardCharsets.US_ASCII));
+
+            Assert.assertEquals(Encoder.bech32mEncode("bc", new byte[]{1, 2}), reader.readLine());
+            Assert.assertEquals(Encoder.bech32mEncode("tb", new byte[0]), reader.readLine());
+            Assert.assertEquals("bc 0102", reader.readLine());
+            Assert.assertEquals("Line 4: Invalid input format!", reader.readLine());
+            Assert.assertEquals("Line 5: Invalid request!", reader.readLine());
+            Assert.assertEquals("Line 6: Request too long!", reader.readLine());
+            Assert.assertEquals("a", reader.readLine());
+        }
+    }
+}
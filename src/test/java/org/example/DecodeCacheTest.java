@@ -0,0 +1,112 @@
+package org.example;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class DecodeCacheTest {
+
+	@Test
+	public void cachedResultEqualsDecodedOne() {
+		DecodeCache cache = new DecodeCache(16);
+		String bech = "abcdef1l7aum6echk45nj3s0wdvt2fg8x9yrzpqzd3ryx";
+
+		Bech32mData first = cache.decode(bech);
+		Bech32mData second = cache.decode(new StringBuilder(bech));
+
+		Assert.assertSame(first, second);
+		Assert.assertEquals(Decoder.decodeAll(new CharSequence[]{bech})[0], first);
+		Assert.assertEquals(1, cache.getMissCount());
+		Assert.assertEquals(1, cache.getHitCount());
+	}
+
+	@Test
+	public void invalidMessagesAreCachedAsSharedResults() {
+		DecodeCache cache = new DecodeCache(16);
+
+		Bech32mData invalid = cache.decode("a1lqfn3q");
+
+		Assert.assertSame(Bech32mData.invalid(CodecStatus.INVALID_CHECKSUM), invalid);
+		Assert.assertSame(invalid, cache.decode("a1lqfn3q"));
+		Assert.assertEquals(1, cache.getHitCount());
+	}
+
+	@Test
+	public void tooLongMessagesAreNotCached() {
+		DecodeCache cache = new DecodeCache(16);
+		StringBuilder bech = new StringBuilder("a1");
+		while (bech.length() <= 10000) {
+			bech.append('q');
+		}
+
+		Assert.assertSame(Bech32mData.invalid(CodecStatus.INVALID_LENGTH), cache.decode(bech));
+		Assert.assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void sizeIsBounded() {
+		DecodeCache cache = new DecodeCache(100);
+		for (int i = 0; i < 1000; i++) {
+			cache.decode("a1" + i);
+		}
+
+		Assert.assertEquals(100, cache.size());
+		Assert.assertEquals(900, cache.getEvictionCount());
+		Assert.assertEquals(1000, cache.getMissCount());
+
+		cache.clear();
+		Assert.assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void frequentlyUsedMessagesSurviveScan() {
+		DecodeCache cache = new DecodeCache(256);
+		List<String> hot = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			hot.add("hot1" + i);
+		}
+		for (String message : hot) {
+			cache.decode(message);
+			cache.decode(message);
+		}
+
+		// messages seen only once do not displace messages seen twice
+		for (int i = 0; i < 1000; i++) {
+			cache.decode("cold1" + i);
+		}
+		long hits = cache.getHitCount();
+		for (String message : hot) {
+			cache.decode(message);
+		}
+		Assert.assertEquals(hits + hot.size(), cache.getHitCount());
+	}
+
+	@Test
+	public void concurrentLookups() throws Exception {
+		DecodeCache cache = new DecodeCache(256);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < 4; t++) {
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < 10000; i++) {
+						String message = i % 2 == 0 ? "a1lqfn3a" : "a1" + (i % 500);
+						Assert.assertEquals(i % 2 == 0, cache.decode(message).isValid());
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+		Assert.assertEquals(40000, cache.getHitCount() + cache.getMissCount());
+		Assert.assertTrue(cache.size() <= 256);
+	}
+}
@@ -2,13 +2,18 @@ package org.example;
 
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 public class DecoderTest {
 
@@ -89,4 +94,183 @@ public class DecoderTest {
         // data part should be empty for this test vector input
         assertEquals(new ArrayList<>(), decoded.get(1));
     }
+
+    @Test
+    public void decodeIntoArray() {
+        byte[] dst = new byte[40];
+        DecodeResult result = Decoder.decode("ABCDEF1L7AUM6ECHK45NJ3S0WDVT2FG8X9YRZPQZD3RYX", dst, 4, new DecodeResult());
+
+        assertEquals(CodecStatus.OK, result.getStatus());
+        assertEquals(0, result.getHrpOffset());
+        assertEquals(6, result.getHrpLength());
+        assertEquals("abcdef", result.hrp("ABCDEF1L7AUM6ECHK45NJ3S0WDVT2FG8X9YRZPQZD3RYX"));
+        assertEquals(32, result.getPayloadLength());
+        for (int i = 0; i < 32; i++) {
+            assertEquals(31 - i, dst[4 + i]);
+        }
+    }
+
+    @Test
+    public void decodeIntoByteBuffer() {
+        DecodeResult result = new DecodeResult();
+        for (ByteBuffer dst : new ByteBuffer[]{ByteBuffer.allocate(40), ByteBuffer.allocateDirect(40)}) {
+            dst.position(2);
+            Decoder.decode("abcdef1l7aum6echk45nj3s0wdvt2fg8x9yrzpqzd3ryx", dst, result);
+
+            assertTrue(result.isValid());
+            assertEquals(34, dst.position());
+            for (int i = 0; i < 32; i++) {
+                assertEquals(31 - i, dst.get(2 + i));
+            }
+        }
+    }
+
+    @Test
+    public void decodeRange() {
+        String line = "address: a1lqfn3a;";
+        DecodeResult result = Decoder.decode(line, 9, 17, new byte[0], 0, new DecodeResult());
+
+        assertTrue(result.isValid());
+        assertEquals(9, result.getHrpOffset());
+        assertEquals("a", result.hrp(line));
+        assertEquals(0, result.getPayloadLength());
+    }
+
+    @Test
+    public void decodeInvalidStatus() {
+        DecodeResult result = new DecodeResult();
+        byte[] dst = new byte[90];
+
+        assertEquals(CodecStatus.MIXED_CASE, Decoder.decode("A1lqfn3a", dst, 0, result).getStatus());
+        assertEquals(CodecStatus.INVALID_CHARACTER, Decoder.decode(" 1xj0phk", dst, 0, result).getStatus());
+        assertEquals(CodecStatus.INVALID_HRP, Decoder.decode("1lqfn3a", dst, 0, result).getStatus());
+        assertEquals(CodecStatus.INVALID_HRP, Decoder.decode("lqfn3a", dst, 0, result).getStatus());
+        assertEquals(CodecStatus.INVALID_LENGTH, Decoder.decode("a1qfn3a", dst, 0, result).getStatus());
+        assertEquals(CodecStatus.INVALID_CHARSET, Decoder.decode("a1lqfn3b", dst, 0, result).getStatus());
+        assertEquals(CodecStatus.INVALID_CHECKSUM, Decoder.decode("a1lqfn3q", dst, 0, result).getStatus());
+        assertEquals(CodecStatus.BUFFER_TOO_SMALL,
+                Decoder.decode("abcdef1l7aum6echk45nj3s0wdvt2fg8x9yrzpqzd3ryx", new byte[31], 0, result).getStatus());
+        assertFalse(result.isValid());
+
+        // only the last separator counts, characters before it belong to human-readable part
+        assertEquals(CodecStatus.INVALID_CHECKSUM, Decoder.decode("b1a1lqfn3a", dst, 0, result).getStatus());
+        assertEquals(CodecStatus.INVALID_CHARSET, Decoder.decode("a1lqfn3a1bbbbbbb", dst, 0, result).getStatus());
+        assertEquals(CodecStatus.INVALID_LENGTH, Decoder.decode(new String(new char[91]), dst, 0, result).getStatus());
+
+        // mixed case found after character out of range still takes precedence
+        assertEquals(CodecStatus.MIXED_CASE, Decoder.decode("a 1lqfn3A", dst, 0, result).getStatus());
+        assertEquals(CodecStatus.INVALID_CHARACTER, Decoder.decode("\u00ff1lqfn3a", dst, 0, result).getStatus());
+    }
+
+    @Test
+    public void decodeDetectsVariant() {
+        DecodeResult result = new DecodeResult();
+        byte[] dst = new byte[90];
+        String bech32 = "abcdef1qpzry9x8gf2tvdw0s3jn54khce6mua7lmqqqxw";
+        String bech32m = "abcdef1l7aum6echk45nj3s0wdvt2fg8x9yrzpqzd3ryx";
+
+        Decoder.decode(bech32, dst, 0, result);
+        assertEquals(CodecStatus.INVALID_CHECKSUM, result.getStatus());
+        assertEquals(Bech32Variant.BECH32, result.getVariant());
+
+        Decoder.decode(bech32, 0, bech32.length(), dst, 0, result, true);
+        assertTrue(result.isValid());
+        assertEquals(Bech32Variant.BECH32, result.getVariant());
+        assertEquals(32, result.getPayloadLength());
+
+        Decoder.decode(bech32m, 0, bech32m.length(), dst, 0, result, true);
+        assertTrue(result.isValid());
+        assertEquals(Bech32Variant.BECH32M, result.getVariant());
+
+        Decoder.decode("a1lqfn3q", 0, 8, dst, 0, result, true);
+        assertEquals(CodecStatus.INVALID_CHECKSUM, result.getStatus());
+        assertEquals(null, result.getVariant());
+    }
+
+    @Test
+    public void decodeInvalidReturnsEmptyList() {
+        assertTrue(Decoder.bech32mDecode("a1lqfn3q").isEmpty());
+        assertTrue(Decoder.bech32mDecode("a1lQfn3a").isEmpty());
+    }
+
+    @Test
+    public void isValidMatchesDecode() {
+        String[] messages = {"a1lqfn3a", "ABCDEF1L7AUM6ECHK45NJ3S0WDVT2FG8X9YRZPQZD3RYX", "?1v759aa", "a1lqfn3q",
+                "a1lQfn3a", "1qzzfhee", "a1b1lqfn3a", "bc1qw508d6qejxtdg4y5r3zarvary0c5xw7kv8f3t4", ""};
+        for (String message : messages) {
+            assertEquals(message, Decoder.decode(message, new byte[90], 0, new DecodeResult()).isValid(),
+                    Decoder.isValid(message));
+        }
+    }
+
+    @Test
+    public void isValidChecksExpectedHrp() {
+        assertTrue(Decoder.isValid("ABCDEF1L7AUM6ECHK45NJ3S0WDVT2FG8X9YRZPQZD3RYX", "abcdef"));
+        assertTrue(Decoder.isValid("abcdef1l7aum6echk45nj3s0wdvt2fg8x9yrzpqzd3ryx", "ABCDEF"));
+        assertFalse(Decoder.isValid("abcdef1l7aum6echk45nj3s0wdvt2fg8x9yrzpqzd3ryx", "abcde"));
+        assertFalse(Decoder.isValid("abcdef1l7aum6echk45nj3s0wdvt2fg8x9yrzpqzd3ryx", "abcdeg"));
+        assertFalse(Decoder.isValid("a1lqfn3a", "abcdef"));
+        assertFalse(Decoder.isValid("a1lqfn3q", "a"));
+        // HRP containing separator
+        String message = Encoder.bech32mEncode("a1b", new byte[]{1, 2, 3});
+        assertTrue(Decoder.isValid(message, "a1b"));
+        assertFalse(Decoder.isValid(message, "a"));
+    }
+
+    @Test
+    public void decodeLongMessage() {
+        byte[] payload = new byte[50_000];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) (i * 7 % 32);
+        }
+        String message = Encoder.bech32mEncode("lnbc", payload);
+
+        Bech32mData decoded = Decoder.decode(message, 60_000, false);
+
+        assertTrue(decoded.isValid());
+        assertEquals("lnbc", decoded.getHrp());
+        assertTrue(Arrays.equals(payload, decoded.getData()));
+        assertEquals(CodecStatus.INVALID_LENGTH, Decoder.decode(message, 50_000, false).getStatus());
+        assertEquals(CodecStatus.INVALID_LENGTH, Decoder.decodeAll(new CharSequence[]{message})[0].getStatus());
+
+        char[] corrupted = message.toCharArray();
+        corrupted[30_000] = corrupted[30_000] == 'q' ? 'p' : 'q';
+        assertEquals(CodecStatus.INVALID_CHECKSUM, Decoder.decode(new String(corrupted), 60_000, false).getStatus());
+        assertEquals(Decoder.decodeAll(new CharSequence[]{"a1lqfn3a"})[0], Decoder.decode("a1lqfn3a", 90, false));
+
+        // human-readable part is limited regardless of the message length limit
+        String longestHrp = new String(new char[Bech32mUtils.MAX_HRP_LENGTH]).replace('\0', 'a');
+        assertTrue(Decoder.decode(Encoder.bech32mEncode(longestHrp, new byte[]{1}), 60_000, false).isValid());
+        assertEquals(CodecStatus.INVALID_HRP, Decoder.decode("a" + longestHrp + "1lqfn3a", 60_000, false).getStatus());
+    }
+
+    @Test
+    public void decodeAllKeepsInputOrder() {
+        String[] valid = {"a1lqfn3a", "ABCDEF1L7AUM6ECHK45NJ3S0WDVT2FG8X9YRZPQZD3RYX", "?1v759aa"};
+        CharSequence[] addresses = new CharSequence[9000];
+        for (int i = 0; i < addresses.length; i++) {
+            addresses[i] = i % 4 == 3 ? "a1lqfn3q" : valid[i % 4];
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        Bech32mData[] decoded;
+        try {
+            decoded = Decoder.decodeAll(addresses, pool, 1);
+        } finally {
+            pool.shutdown();
+        }
+
+        for (int i = 0; i < addresses.length; i++) {
+            if (i % 4 == 3) {
+                assertEquals(CodecStatus.INVALID_CHECKSUM, decoded[i].getStatus());
+                assertFalse(decoded[i].isValid());
+            } else {
+                List<Object> expected = Decoder.bech32mDecode(valid[i % 4]);
+                assertTrue(decoded[i].isValid());
+                assertEquals(expected.get(0), decoded[i].getHrp());
+                assertEquals(((List<?>) expected.get(1)).size(), decoded[i].getDataLength());
+            }
+        }
+        assertEquals(decoded[1], Decoder.decodeAll(new CharSequence[]{valid[1]})[0]);
+    }
 }
@@ -3,6 +3,11 @@ package org.example;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+
 public class EncoderTest {
 
 	private class Bech32mBlock {
@@ -44,4 +49,59 @@ public class EncoderTest {
 			Assert.assertEquals(expected[i], Encoder.bech32mEncode(inputs[i].hrp, inputs[i].data));
 		}
 	}
+
+	@Test
+	public void encodeAllKeepsInputOrder() {
+		byte[][] payloads = new byte[10000][];
+		for (int i = 0; i < payloads.length; i++) {
+			payloads[i] = new byte[]{(byte) (i & 0x1F), (byte) ((i >> 5) & 0x1F), (byte) ((i >> 10) & 0x1F)};
+		}
+		payloads[42] = new byte[]{32};
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+		String[] sequential;
+		String[] parallel;
+		try {
+			sequential = Encoder.encodeAll("bc", payloads, pool, Integer.MAX_VALUE);
+			parallel = Encoder.encodeAll("bc", payloads, pool, 1);
+		} finally {
+			pool.shutdown();
+		}
+
+		Assert.assertArrayEquals(sequential, parallel);
+		for (int i = 0; i < payloads.length; i++) {
+			Assert.assertEquals(i == 42 ? null : Encoder.bech32mEncode("bc", payloads[i]), parallel[i]);
+		}
+		Assert.assertNull(Encoder.encodeAll("b c", payloads));
+	}
+
+	@Test
+	public void encodeToBuffers() throws IOException {
+		byte[] data = {31, 30, 29, 28, 27, 26, 25, 24, 23, 22, 21, 20, 19, 18, 17, 16, 15, 14, 13, 12, 11, 10, 9, 8, 7, 6, 5, 4, 3, 2, 1, 0};
+		String expected = "abcdef1l7aum6echk45nj3s0wdvt2fg8x9yrzpqzd3ryx";
+
+		byte[] array = new byte[expected.length() + 2];
+		Assert.assertEquals(expected.length(), Encoder.encodeTo("ABCDEF", data, array, 2));
+		Assert.assertEquals(expected, new String(array, 2, expected.length(), StandardCharsets.US_ASCII));
+		Assert.assertEquals(-1, Encoder.encodeTo("abcdef", data, array, 3));
+
+		for (ByteBuffer buffer : new ByteBuffer[]{ByteBuffer.allocate(64), ByteBuffer.allocateDirect(64)}) {
+			buffer.position(1);
+			Assert.assertEquals(expected.length(), Encoder.encodeTo("abcdef", data, buffer));
+			Assert.assertEquals(1 + expected.length(), buffer.position());
+			buffer.flip().position(1);
+			Assert.assertEquals(expected, StandardCharsets.US_ASCII.decode(buffer).toString());
+
+			buffer.clear().limit(expected.length() - 1);
+			Assert.assertEquals(-1, Encoder.encodeTo("abcdef", data, buffer));
+			Assert.assertEquals(0, buffer.position());
+		}
+
+		StringBuilder builder = new StringBuilder("x");
+		Assert.assertEquals(expected.length(), Encoder.encodeTo("abcdef", data, builder));
+		Assert.assertEquals("x" + expected, builder.toString());
+		Assert.assertEquals(-1, Encoder.encodeTo("abcdef", new byte[]{32}, builder));
+		Assert.assertEquals(-1, Encoder.encodeTo("", data, builder));
+		Assert.assertEquals("x" + expected, builder.toString());
+	}
 }
@@ -0,0 +1,64 @@
+package org.example;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ErrorLocatorTest {
+
+    private static final String VALID = "abcdef1l7aum6echk45nj3s0wdvt2fg8x9yrzpqzd3ryx";
+
+    @Test
+    public void validMessageHasNoErrors() {
+        assertArrayEquals(new int[0], ErrorLocator.locate(VALID));
+        assertEquals(VALID, ErrorLocator.correct(VALID));
+    }
+
+    @Test
+    public void malformedMessageCanNotBeLocated() {
+        assertNull(ErrorLocator.locate("abcdef1l7aum6echk45nj3s0wdvt2fg8x9yrzpqzd3ryb"));
+        assertNull(ErrorLocator.locate("Abcdef1l7aum6echk45nj3s0wdvt2fg8x9yrzpqzd3ryx"));
+        assertNull(ErrorLocator.correct("a1q"));
+    }
+
+    @Test
+    public void locateSingleError() {
+        String mistyped = "abcdef1l7aum6echk45nj3s0wdvt2fg8x9yrzpqzd3rqx";
+        assertArrayEquals(new int[]{43}, ErrorLocator.locate(mistyped));
+        assertEquals(VALID, ErrorLocator.correct(mistyped));
+        assertEquals(VALID.toUpperCase(), ErrorLocator.correct(mistyped.toUpperCase()));
+    }
+
+    @Test
+    public void locateRandomErrors() {
+        Random random = new Random(7);
+        String charset = Bech32mUtils.BECH32M_CHARSET;
+        int dataStart = VALID.indexOf('1') + 1;
+        for (int round = 0; round < 500; round++) {
+            char[] mistyped = VALID.toCharArray();
+            int first = dataStart + random.nextInt(VALID.length() - dataStart);
+            int second = first;
+            while (second == first) {
+                second = dataStart + random.nextInt(VALID.length() - dataStart);
+            }
+            mistyped[first] = charset.charAt((charset.indexOf(mistyped[first]) + 1 + random.nextInt(31)) % 32);
+            mistyped[second] = charset.charAt((charset.indexOf(mistyped[second]) + 1 + random.nextInt(31)) % 32);
+
+            String message = new String(mistyped);
+            assertArrayEquals(message, new int[]{Math.min(first, second), Math.max(first, second)},
+                    ErrorLocator.locate(message));
+            assertEquals(message, VALID, ErrorLocator.correct(message));
+        }
+    }
+
+    @Test
+    public void locateErrorOfBech32Message() {
+        String mistyped = "abcdef1qpzry9x8gf2tvdw0s3jn54khce6mua7lmqqqxx";
+        assertArrayEquals(new int[]{44}, ErrorLocator.locate(mistyped, Bech32Variant.BECH32));
+        assertEquals("abcdef1qpzry9x8gf2tvdw0s3jn54khce6mua7lmqqqxw", ErrorLocator.correct(mistyped, Bech32Variant.BECH32));
+    }
+}
@@ -0,0 +1,54 @@
+package org.example;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+public class HexCodecTest {
+
+    @Test
+    public void leadingZerosArePreserved() {
+        Assert.assertArrayEquals(new byte[]{0, 0, 1, (byte) 0xff}, HexCodec.decode("000001fF"));
+        Assert.assertEquals("000001ff", HexCodec.encode(new byte[]{0, 0, 1, (byte) 0xff}));
+        Assert.assertArrayEquals(new byte[0], HexCodec.decode(""));
+    }
+
+    @Test
+    public void oddLengthHasImplicitLeadingZero() {
+        Assert.assertArrayEquals(new byte[]{0x0a, (byte) 0xbc}, HexCodec.decode("abc"));
+        Assert.assertEquals(ByteBuffer.wrap(new byte[]{0x0a, (byte) 0xbc}), HexCodec.decode(ascii("abc")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidDigitIsRejected() {
+        HexCodec.decode("0g");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidDigitInBufferIsRejected() {
+        HexCodec.decode(ByteBuffer.wrap(new byte[]{'0', (byte) 0xb0}));
+    }
+
+    @Test
+    public void largeDataRoundTripsInChunks() throws IOException {
+        byte[] data = new byte[3 * HexCodec.CHUNK_SIZE + 17];
+        new Random(5).nextBytes(data);
+
+        StringBuilder encoded = new StringBuilder();
+        HexCodec.encode(ByteBuffer.wrap(data), encoded);
+        Assert.assertEquals(HexCodec.encode(data), encoded.toString());
+
+        ByteBuffer text = ByteBuffer.allocateDirect(encoded.length());
+        text.put(encoded.toString().toUpperCase().getBytes(StandardCharsets.US_ASCII)).flip();
+        Assert.assertEquals(ByteBuffer.wrap(data), HexCodec.decode(text));
+        Assert.assertFalse(text.hasRemaining());
+    }
+
+    private static ByteBuffer ascii(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,96 @@
+package org.example;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class HrpCacheTest {
+
+	@Test
+	public void prefixHoldsStateAndValidity() {
+		HrpCache cache = new HrpCache(4);
+
+		HrpCache.Prefix prefix = cache.lookup("bc");
+		Assert.assertEquals("bc", prefix.getHrp());
+		Assert.assertTrue(prefix.isValid());
+		Assert.assertEquals(new Bech32mChecksum().updateHrp("bc").getState(), prefix.getState());
+
+		// the same state for uppercase HRP, but different entry
+		HrpCache.Prefix upper = cache.lookup("xBCx", 1, 3);
+		Assert.assertNotSame(prefix, upper);
+		Assert.assertEquals(prefix.getState(), upper.getState());
+
+		Assert.assertFalse(cache.lookup("bC").isValid());
+		Assert.assertFalse(cache.lookup("").isValid());
+		Assert.assertEquals(4, cache.size());
+	}
+
+	@Test
+	public void leastRecentlyUsedIsEvicted() {
+		HrpCache cache = new HrpCache(2);
+
+		HrpCache.Prefix bc = cache.lookup("bc");
+		HrpCache.Prefix tb = cache.lookup("tb");
+		Assert.assertSame(bc, cache.lookup("bc"));
+
+		// "tb" is the least recently used one
+		cache.lookup("bcrt");
+		Assert.assertEquals(2, cache.size());
+		Assert.assertSame(bc, cache.lookup("bc"));
+		Assert.assertNotSame(tb, cache.lookup("tb"));
+
+		cache.clear();
+		Assert.assertEquals(0, cache.size());
+		Assert.assertNotSame(bc, cache.lookup("bc"));
+	}
+
+	@Test
+	public void tooLongHrpIsNotCached() {
+		HrpCache cache = new HrpCache(2);
+		HrpCache.Prefix bc = cache.lookup("bc");
+		String hrp = new String(new char[Bech32mUtils.MAX_HRP_LENGTH + 1]).replace('\0', 'a');
+
+		HrpCache.Prefix prefix = cache.lookup(hrp);
+		Assert.assertFalse(prefix.isValid());
+		Assert.assertEquals(new Bech32mChecksum().updateHrp(hrp).getState(), prefix.getState());
+		Assert.assertEquals(1, cache.size());
+		Assert.assertSame(bc, cache.lookup("bc"));
+	}
+
+	@Test
+	public void concurrentLookupsReturnCorrectPrefixes() throws Exception {
+		HrpCache cache = new HrpCache(8);
+		String[] hrps = new String[32];
+		int[] states = new int[hrps.length];
+		for (int i = 0; i < hrps.length; i++) {
+			hrps[i] = "hrp" + i;
+			states[i] = new Bech32mChecksum().updateHrp(hrps[i]).getState();
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < 4; t++) {
+				int seed = t;
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < 20000; i++) {
+						int index = (i * 7 + seed) % (i % 3 == 0 ? hrps.length : 4);
+						HrpCache.Prefix prefix = cache.lookup(hrps[index]);
+						Assert.assertEquals(hrps[index], prefix.getHrp());
+						Assert.assertEquals(states[index], prefix.getState());
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+		Assert.assertEquals(8, cache.size());
+	}
+}
@@ -0,0 +1,82 @@
+package org.example;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class SegwitTest {
+
+    @Test
+    public void segwitTestVectors() throws IOException {
+        List<String> lines = Files.readAllLines(Paths.get("test_vectors_segwit.txt"), StandardCharsets.US_ASCII);
+        assertFalse(lines.isEmpty());
+        for (String line : lines) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            String[] parts = line.split(":");
+            String address = parts[0].trim();
+            byte[] script = hexToBytes(parts[1].trim());
+
+            SegwitAddress decoded = Decoder.decodeSegwit(address);
+            assertNotNull(address, decoded);
+            assertArrayEquals(address, script, decoded.getScriptPubKey());
+
+            String encoded = Encoder.encodeSegwit(decoded.getHrp(), decoded.getWitnessVersion(), decoded.getProgram());
+            assertEquals(address.toLowerCase(Locale.ROOT), encoded);
+        }
+    }
+
+    @Test
+    public void invalidSegwitAddresses() {
+        List<String> invalid = Arrays.asList(
+                // Bech32 checksum with version 1 and Bech32m checksum with version 0
+                "bc1p0xlxvlhemja6c4dqv22uapctqupfhlxm9h8z3k2e72q4k9hcz7vqh2y7hd",
+                "bc1qw508d6qejxtdg4y5r3zarvary0c5xw7kemeawh",
+                // invalid witness version
+                "BC130XLXVLHEMJA6C4DQV22UAPCTQUPFHLXM9H8Z3K2E72Q4K9HCZ7VQ7ZWS8R",
+                // invalid program length
+                "bc1pw5dgrnzv",
+                "bc1p0xlxvlhemja6c4dqv22uapctqupfhlxm9h8z3k2e72q4k9hcz7v8n0nx0muaewav253zgeav",
+                "BC1QR508D6QEJXTDG4Y5R3ZARVARYV98GJ9P",
+                // mixed case
+                "tb1p0xlxvlhemja6c4dqv22uapctqupfhlxm9h8z3k2e72q4k9hcz7vq47Zagq",
+                // non-zero padding
+                "bc1p0xlxvlhemja6c4dqv22uapctqupfhlxm9h8z3k2e72q4k9hcz7v07qwwzcrf",
+                "tb1p0xlxvlhemja6c4dqv22uapctqupfhlxm9h8z3k2e72q4k9hcz7vpggkg4j",
+                // empty data part
+                "bc1gmk9yu");
+        for (String address : invalid) {
+            assertNull(address, Decoder.decodeSegwit(address));
+        }
+    }
+
+    @Test
+    public void encodeRejectsInvalidParameters() {
+        assertNull(Encoder.encodeSegwit("bc", 0, new byte[16]));
+        assertNull(Encoder.encodeSegwit("bc", 17, new byte[20]));
+        assertNull(Encoder.encodeSegwit("bc", 1, new byte[1]));
+        assertNull(Encoder.encodeSegwit("bc", 1, new byte[41]));
+        assertNull(Encoder.encodeSegwit("b c", 0, new byte[20]));
+    }
+
+    private static byte[] hexToBytes(String hex) {
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(hex.substring(2 * i, 2 * i + 2), 16);
+        }
+        return bytes;
+    }
+}
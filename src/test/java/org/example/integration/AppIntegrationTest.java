@@ -1,14 +1,21 @@
 package org.example.integration;
 
 import org.example.App;
+import org.example.Encoder;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
 
 /**
  * Test class for integration testing of whole application.
@@ -25,7 +32,9 @@ public class AppIntegrationTest {
 
 	private final String UNKNOWN_FLAG_MSG_PREFIX = "Unknown flag provided: ";
 	private final String HELP_PRINTOUT = "Bech32m encoding tool usage:" + System.lineSeparator()
-			+ "<[-e [--in-format <format>]] | -d [--out-format <format>]> <-i <file> | <input>> <-hrp <value>> [-o <file>]" + System.lineSeparator()
+			+ "<[-e [--in-format <format>]] | -d [--out-format <format>]> <-i <file> | <input>> <--hrp <value>> [-o <file>]" + System.lineSeparator()
+			+ "<[-e [--in-format <format>]] | -d [--out-format <format>]> --batch [--threads <value>] [--cache <value>] [-i <file>] <--hrp <value>> [-o <file>]" + System.lineSeparator()
+			+ "--serve <port> [--in-format <format>] [--out-format <format>] [--cache <value>]" + System.lineSeparator()
 			+ "Options:" + System.lineSeparator()
 			+ "  -e                   | encoding mode (by default)" + System.lineSeparator()
 			+ "  -d                   | decoding mode" + System.lineSeparator()
@@ -33,7 +42,11 @@ public class AppIntegrationTest {
 			+ "  -o <file>            | output file (stdout by default)" + System.lineSeparator()
 			+ "  --in-format <value>  | format of input; possible values: base64 (by default), hex, binary" + System.lineSeparator()
 			+ "  --out-format <value> | format of output; possible values: base64 (by default), hex, binary" + System.lineSeparator()
-			+ "  --hrp <value>        | definition of human readable part" + System.lineSeparator();
+			+ "  --hrp <value>        | definition of human readable part" + System.lineSeparator()
+			+ "  --batch              | batch mode; every line of input is encoded/decoded separately" + System.lineSeparator()
+			+ "  --threads <value>    | number of threads used in batch mode (number of processors by default)" + System.lineSeparator()
+			+ "  --serve <port>       | server mode; every line received on localhost port is request \"e <hrp> <payload>\" or \"d <message>\"" + System.lineSeparator()
+			+ "  --cache <value>      | number of decoded messages cached in batch and server mode (no cache by default)" + System.lineSeparator();
 
 	// streams used for testing (standard output and error output is moved to them)
 	private ByteArrayOutputStream out = new ByteArrayOutputStream();
@@ -43,6 +56,15 @@ public class AppIntegrationTest {
 	private PrintStream originalOut = System.out;
 	private PrintStream originalErr = System.err;
 
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File createInputFile(String... lines) throws IOException {
+		File file = folder.newFile();
+		Files.write(file.toPath(), Arrays.asList(lines), StandardCharsets.US_ASCII);
+		return file;
+	}
+
 	@Before
 	public void setOutputStreams() throws IOException {
 		System.setOut(new PrintStream(out));
@@ -85,6 +107,127 @@ public class AppIntegrationTest {
 	}
 
 
+	@Test
+	public void decodeValidWithBase64Output() {
+		String[] flags = {"-d", "abcdef1l7aum6echk45nj3s0wdvt2fg8x9yrzpqzd3ryx"};
+
+		App.main(flags);
+
+		final String expectedOut = HRP_PRINTOUT_PREFIX + "abcdef" + HRP_PRINTOUT_SUFFIX
+				+ PAYLOAD_PRINTOUT_PREFIX + "Hx4dHBsaGRgXFhUUExIREA8ODQwLCgkIBwYFBAMCAQA=" + PAYLOAD_PRINTOUT_SUFFIX;
+
+		Assert.assertEquals(expectedOut, out.toString());
+		Assert.assertEquals("", err.toString());
+	}
+
+	@Test
+	public void encodeHexInputWithLeadingZeros() {
+		String[] flags = {"--hrp", "a", "--in-format", "hex", "00001f"};
+
+		App.main(flags);
+
+		Assert.assertEquals(Encoder.bech32mEncode("a", new byte[]{0, 0, 31}) + System.lineSeparator(), out.toString());
+		Assert.assertEquals("", err.toString());
+	}
+
+	@Test
+	public void encodeBinaryInputFile() throws IOException {
+		File input = folder.newFile();
+		Files.write(input.toPath(), new byte[]{31, 30, 29, 28, 27, 26, 25, 24, 23, 22, 21, 20, 19, 18, 17, 16,
+				15, 14, 13, 12, 11, 10, 9, 8, 7, 6, 5, 4, 3, 2, 1, 0});
+		String[] flags = {"--hrp", "abcdef", "-i", input.getPath(), "--in-format", "binary"};
+
+		App.main(flags);
+
+		Assert.assertEquals("abcdef1l7aum6echk45nj3s0wdvt2fg8x9yrzpqzd3ryx" + System.lineSeparator(), out.toString());
+		Assert.assertEquals("", err.toString());
+	}
+
+	@Test
+	public void decodeInputFileWithTrailingNewline() throws IOException {
+		File input = createInputFile("abcdef1l7aum6echk45nj3s0wdvt2fg8x9yrzpqzd3ryx");
+		String[] flags = {"-d", "-i", input.getPath(), "--out-format", "hex"};
+
+		App.main(flags);
+
+		final String expectedOut = HRP_PRINTOUT_PREFIX + "abcdef" + HRP_PRINTOUT_SUFFIX
+				+ PAYLOAD_PRINTOUT_PREFIX + "1f1e1d1c1b1a191817161514131211100f0e0d0c0b0a09080706050403020100" + PAYLOAD_PRINTOUT_SUFFIX;
+
+		Assert.assertEquals(expectedOut, out.toString());
+		Assert.assertEquals("", err.toString());
+	}
+
+	@Test
+	public void batchDecodeWithHexOutput() throws IOException {
+		File input = createInputFile("a1lqfn3a", "a1lqfn3q", "ABCDEF1L7AUM6ECHK45NJ3S0WDVT2FG8X9YRZPQZD3RYX");
+		String[] flags = {"-d", "--batch", "-i", input.getPath(), "--out-format", "hex"};
+
+		App.main(flags);
+
+		final String expectedOut = "a" + System.lineSeparator()
+				+ "Line 2: Decoding failed!" + System.lineSeparator()
+				+ "abcdef 1f1e1d1c1b1a191817161514131211100f0e0d0c0b0a09080706050403020100" + System.lineSeparator();
+
+		Assert.assertEquals(expectedOut, out.toString());
+		Assert.assertEquals("", err.toString());
+	}
+
+	@Test
+	public void batchDecodeWithCache() throws IOException {
+		File input = createInputFile("a1lqfn3a", "a1lqfn3q", "a1lqfn3a", "a1lqfn3q", "a1lqfn3a");
+		String[] flags = {"-d", "--batch", "--threads", "1", "--cache", "2", "-i", input.getPath()};
+
+		App.main(flags);
+
+		final String expectedOut = "a" + System.lineSeparator()
+				+ "Line 2: Decoding failed!" + System.lineSeparator()
+				+ "a" + System.lineSeparator()
+				+ "Line 4: Decoding failed!" + System.lineSeparator()
+				+ "a" + System.lineSeparator();
+
+		Assert.assertEquals(expectedOut, out.toString());
+		Assert.assertEquals("", err.toString());
+	}
+
+	@Test
+	public void batchEncodeWithHexInputToFile() throws IOException {
+		File input = createInputFile("0102", "zz", "20", "1f00");
+		File output = folder.newFile();
+		String[] flags = {"--batch", "--hrp", "bc", "-i", input.getPath(), "-o", output.getPath(), "--in-format", "hex"};
+
+		App.main(flags);
+
+		Assert.assertEquals(Arrays.asList(
+				Encoder.bech32mEncode("bc", new byte[]{1, 2}),
+				"Line 2: Invalid input format!",
+				"Line 3: Encoding failed!",
+				Encoder.bech32mEncode("bc", new byte[]{31, 0})),
+				Files.readAllLines(output.toPath(), StandardCharsets.US_ASCII));
+		Assert.assertEquals("", out.toString());
+		Assert.assertEquals("", err.toString());
+	}
+
+	@Test
+	public void multiThreadedBatchKeepsInputOrder() throws IOException {
+		String[] lines = new String[5000];
+		StringBuilder expectedOut = new StringBuilder();
+		for (int i = 0; i < lines.length; i++) {
+			byte[] payload = {(byte) (16 + (i & 0xF)), (byte) ((i >> 4) & 0x1F), (byte) ((i >> 9) & 0x1F)};
+			lines[i] = i % 7 == 0 ? "invalid" : Encoder.bech32mEncode("tb", payload);
+			expectedOut.append(i % 7 == 0
+					? "Line " + (i + 1) + ": Decoding failed!"
+					: String.format("tb %02x%02x%02x", payload[0], payload[1], payload[2]));
+			expectedOut.append(System.lineSeparator());
+		}
+		File input = createInputFile(lines);
+		String[] flags = {"-d", "--batch", "--threads", "4", "-i", input.getPath(), "--out-format", "hex"};
+
+		App.main(flags);
+
+		Assert.assertEquals(expectedOut.toString(), out.toString());
+		Assert.assertEquals("", err.toString());
+	}
+
 	// ===========================
 	// ||  INVALID INPUT TESTS  ||
 	// ===========================
@@ -103,5 +246,77 @@ public class AppIntegrationTest {
 		Assert.assertEquals("", err.toString());
 	}
 
+	@Test
+	public void batchWithPresubmittedInput() {
+		String[] flags = {"-d", "--batch", "a1lqfn3a"};
+
+		App.main(flags);
+
+		final String expectedOut = "Input must be provided by -i or stdin in batch mode!" + System.lineSeparator() + HELP_PRINTOUT;
+
+		Assert.assertEquals(expectedOut, out.toString());
+		Assert.assertEquals("", err.toString());
+	}
+
+	@Test
+	public void batchWithInvalidThreads() {
+		String[] flags = {"-d", "--batch", "--threads", "none"};
+
+		App.main(flags);
+
+		final String expectedOut = "Invalid number of threads: none" + System.lineSeparator() + HELP_PRINTOUT;
+
+		Assert.assertEquals(expectedOut, out.toString());
+		Assert.assertEquals("", err.toString());
+	}
+
+	@Test
+	public void serveWithInvalidPort() {
+		String[] flags = {"-d", "--serve", "65536"};
+
+		App.main(flags);
+
+		final String expectedOut = "Invalid port: 65536" + System.lineSeparator() + HELP_PRINTOUT;
 
+		Assert.assertEquals(expectedOut, out.toString());
+		Assert.assertEquals("", err.toString());
+	}
+
+	@Test
+	public void serveWithInput() {
+		String[] flags = {"-d", "--serve", "0", "a1lqfn3a"};
+
+		App.main(flags);
+
+		final String expectedOut = "Input, output and batch mode can not be used in server mode!" + System.lineSeparator()
+				+ HELP_PRINTOUT;
+
+		Assert.assertEquals(expectedOut, out.toString());
+		Assert.assertEquals("", err.toString());
+	}
+
+	@Test
+	public void serveWithHrp() {
+		String[] flags = {"--serve", "0", "--hrp", "bc"};
+
+		App.main(flags);
+
+		final String expectedOut = "Operation and HRP are given by every request in server mode!" + System.lineSeparator()
+				+ HELP_PRINTOUT;
+
+		Assert.assertEquals(expectedOut, out.toString());
+		Assert.assertEquals("", err.toString());
+	}
+
+	@Test
+	public void batchWithInvalidCacheSize() {
+		String[] flags = {"-d", "--batch", "--cache", "0"};
+
+		App.main(flags);
+
+		final String expectedOut = "Invalid cache size: 0" + System.lineSeparator() + HELP_PRINTOUT;
+
+		Assert.assertEquals(expectedOut, out.toString());
+		Assert.assertEquals("", err.toString());
+	}
 }